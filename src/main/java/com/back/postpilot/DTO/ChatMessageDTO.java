@@ -7,6 +7,7 @@ import lombok.Data;
 import org.springframework.boot.autoconfigure.info.ProjectInfoProperties;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class ChatMessageDTO {
@@ -20,6 +21,8 @@ public class ChatMessageDTO {
     private LocalDateTime timestamp;
     private Integer sequenceNumber;
     private GenerateContentDTO generateContentDTO;
+    // Every platform version of a multi-platform request; generateContentDTO is the first of them
+    private List<GenerateContentDTO> platformContents;
 
     public ChatMessageDTO(){}
     public ChatMessageDTO(
@@ -67,6 +70,7 @@ public class ChatMessageDTO {
         public Builder sequenceNumber(Integer seq) { dto.sequenceNumber = seq; return this; }
         public Builder modelType(AssitanceModels modelType) { dto.modelType = modelType; return this; }
         public Builder generateContentDTO(GenerateContentDTO generateContentDTO) { dto.generateContentDTO = generateContentDTO; return this; }
+        public Builder platformContents(List<GenerateContentDTO> platformContents) { dto.platformContents = platformContents; return this; }
         public ChatMessageDTO build() { return dto; }
     }
 }
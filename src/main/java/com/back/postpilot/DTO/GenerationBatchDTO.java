@@ -0,0 +1,24 @@
+package com.back.postpilot.DTO;
+
+import com.back.postpilot.EnumTypeConstants.BatchExecutionMode;
+import com.back.postpilot.EnumTypeConstants.GenerationBatchStatus;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+public record GenerationBatchDTO(
+        String batchId,
+        GenerationBatchStatus status,
+        BatchExecutionMode executionMode,
+        int total,
+        long queued,
+        long running,
+        long completed,
+        long failed,
+        List<GenerationJobDTO> items,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,18 @@
+package com.back.postpilot.DTO;
+
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record GenerationJobDTO(
+        String jobId,
+        String sessionId,
+        GenerationJobStatus status,
+        ChatMessageDTO result,
+        String errorMessage,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,6 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum BatchExecutionMode {
+    INTERACTIVE, // items run through the regular chat pipeline right away
+    OFF_PEAK     // items go to a provider batch API and complete within its window (up to 24h)
+}
@@ -0,0 +1,5 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum GenerationBatchStatus {
+    QUEUED, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS
+}
@@ -0,0 +1,5 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum GenerationJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
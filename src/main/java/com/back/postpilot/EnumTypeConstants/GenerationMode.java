@@ -0,0 +1,6 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum GenerationMode {
+    STANDARD, // separate title, reply and platform-content calls
+    STRUCTURED // one call returning {title, summary, content, hashtags} as JSON
+}
@@ -0,0 +1,5 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum ImageStorageStatus {
+    PENDING, STORED, FAILED
+}
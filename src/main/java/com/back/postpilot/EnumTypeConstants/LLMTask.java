@@ -0,0 +1,8 @@
+package com.back.postpilot.EnumTypeConstants;
+
+public enum LLMTask {
+    TITLE, // session title
+    SUMMARY, // short chat reply next to platform content, conversation memory summary
+    HASHTAGS, // hashtag suggestions
+    CONTENT // platform content, and the reply itself on the default platform
+}
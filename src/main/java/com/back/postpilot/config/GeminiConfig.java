@@ -0,0 +1,32 @@
+package com.back.postpilot.config;
+
+import com.google.genai.Client;
+import com.google.genai.types.HttpOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.time.Duration;
+
+/**
+ * One shared Gemini {@link Client}. The SDK keeps a pooled, keep-alive HTTP client per {@code Client}, so sharing
+ * it avoids a new HTTP stack, credential lookup and TLS handshake per prompt. Lazy so the app still starts
+ * without a Gemini key; inject it through {@code ObjectProvider<Client>}.
+ */
+@Configuration
+public class GeminiConfig {
+
+    @Bean
+    @Lazy
+    public Client geminiClient(@Value("${gemini.api-key:}") String apiKey,
+                               @Value("${gemini.timeout:PT2M}") Duration timeout) {
+        Client.Builder builder = Client.builder()
+                .httpOptions(HttpOptions.builder().timeout((int) timeout.toMillis()).build());
+        if (!apiKey.isBlank()) {
+            // otherwise the SDK falls back to GOOGLE_API_KEY / GEMINI_API_KEY from the environment
+            builder.apiKey(apiKey);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.back.postpilot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class GenerationExecutorConfig {
+
+    /**
+     * Virtual-thread executor for provider calls. Each LLM/image round trip is almost entirely I/O wait,
+     * so one virtual thread per call keeps fan-out cheap without sizing a platform thread pool.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService generationExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Bounded pool for queued generation jobs. When the queue is full submissions are rejected
+     * instead of piling up, so a burst of slow requests can't starve the rest of the API.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor generationJobExecutor(@Value("${generation.jobs.pool-size:4}") int poolSize,
+                                                        @Value("${generation.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("generation-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
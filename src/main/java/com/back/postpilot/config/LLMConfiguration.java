@@ -1,5 +1,9 @@
 package com.back.postpilot.config;
 
+import com.back.postpilot.service.llm.ConcurrencyLimitAdvisor;
+import com.back.postpilot.service.llm.ConcurrencyLimiterRegistry;
+import com.back.postpilot.service.llm.PromptCacheStats;
+import com.back.postpilot.service.llm.PromptCacheUsageAdvisor;
 import org.springframework.ai.anthropic.AnthropicChatModel;
 import org.springframework.ai.azure.openai.AzureOpenAiChatModel;
 import org.springframework.ai.chat.client.ChatClient;
@@ -14,26 +18,43 @@ import lombok.extern.slf4j.Slf4j;
 @Configuration
 public class LLMConfiguration {
 
+    private final ConcurrencyLimiterRegistry limiterRegistry;
+    private final PromptCacheStats promptCacheStats;
+
+    public LLMConfiguration(ConcurrencyLimiterRegistry limiterRegistry, PromptCacheStats promptCacheStats) {
+        this.limiterRegistry = limiterRegistry;
+        this.promptCacheStats = promptCacheStats;
+    }
+
     @Bean
     ChatClient OllamaChatClient(OllamaChatModel chatModel) {
         return ChatClient.builder(chatModel)
+                .defaultAdvisors(limitFor("ollama"), usageFor("ollama"))
                 // .defaultSystem("You are an intelligent AI assitant which can answer question and answer in short and detailed manner as per the context and itself knowledge base")
                 .build();
     }
 
     @Bean
     ChatClient OpenAiChatClient(OpenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel).build();
+        return ChatClient.builder(chatModel).defaultAdvisors(limitFor("openai"), usageFor("openai")).build();
     }
 
     @Bean
     ChatClient AnthropicChatClient(AnthropicChatModel chatModel) {
-        return ChatClient.builder(chatModel).build();
+        return ChatClient.builder(chatModel).defaultAdvisors(limitFor("anthropic"), usageFor("anthropic")).build();
     }
 
     @Bean
     ChatClient AzureOpenAiChatClient(AzureOpenAiChatModel chatModel) {
         log.debug("Creating Azure OpenAI ChatClient");
-        return ChatClient.builder(chatModel).build();
+        return ChatClient.builder(chatModel).defaultAdvisors(limitFor("azureopenai"), usageFor("azureopenai")).build();
+    }
+
+    private ConcurrencyLimitAdvisor limitFor(String provider) {
+        return new ConcurrencyLimitAdvisor(limiterRegistry.forProvider(provider));
+    }
+
+    private PromptCacheUsageAdvisor usageFor(String provider) {
+        return new PromptCacheUsageAdvisor(provider, promptCacheStats);
     }
 }
\ No newline at end of file
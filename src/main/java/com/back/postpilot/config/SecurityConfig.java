@@ -4,6 +4,7 @@ import com.back.postpilot.entity.Role;
 import com.back.postpilot.filter.JWTAuthFilter;
 import com.back.postpilot.service.CustomUserDetailsService;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,6 +48,8 @@ public class SecurityConfig {
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .cors(cors->cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth->auth
+                        // async (DeferredResult/SSE) re-dispatches of a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/auth/**").permitAll()  //login, signup
                         .requestMatchers("/api/test/public").permitAll()
                         .requestMatchers("/linkedin/**").permitAll()
@@ -3,6 +3,8 @@ package com.back.postpilot.controller;
 
 import com.back.postpilot.DTO.ChatMessageDTO;
 import com.back.postpilot.DTO.ChatHistoryDTO;
+import com.back.postpilot.DTO.GenerationBatchDTO;
+import com.back.postpilot.DTO.GenerationJobDTO;
 import com.back.postpilot.DTO.PageRequestDTO;
 import com.back.postpilot.DTO.UserProfileDTO;
 import com.back.postpilot.domain.ContentGenerationRequest;
@@ -11,23 +13,44 @@ import com.back.postpilot.entity.UserEntity;
 import com.back.postpilot.service.ChatHistoryService;
 import com.back.postpilot.service.ChatService;
 import com.back.postpilot.service.CustomUserDetailsService;
+import com.back.postpilot.service.generation.CancellationSignal;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import com.back.postpilot.service.generation.RequestDeadlines;
+import com.back.postpilot.service.job.BulkCsvParser;
+import com.back.postpilot.service.job.BulkGenerationService;
+import com.back.postpilot.service.job.GenerationJobRejectedException;
+import com.back.postpilot.service.job.GenerationJobService;
 import com.google.genai.types.GeneratedImage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.back.postpilot.EnumTypeConstants.*;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
 
 @Slf4j
 @RestController
@@ -43,6 +66,27 @@ public class ChatController {
     @Autowired
     CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    GenerationJobService generationJobService;
+
+    @Autowired
+    BulkGenerationService bulkGenerationService;
+
+    @Autowired
+    RequestDeadlines requestDeadlines;
+
+    @Autowired
+    GenerationTaskRunner generationTaskRunner;
+
+    @Value("${chat.stream.timeout-ms:300000}")
+    private long streamTimeoutMs;
+
+    @Value("${chat.deadline.assistant:PT2M}")
+    private Duration assistantDeadline;
+
+    @Value("${chat.deadline.stream:PT5M}")
+    private Duration streamDeadline;
+
     @PostMapping("/content")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
     ResponseEntity<?> getResponse(String prompt){
@@ -57,20 +101,176 @@ public class ChatController {
 
     @PostMapping("/assistant")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
-    ResponseEntity<?> getResponseGemini(@RequestBody ContentGenerationRequest request){
+    DeferredResult<ResponseEntity<?>> getResponseGemini(@RequestBody ContentGenerationRequest request,
+                                                        @RequestParam(defaultValue = "false") boolean async,
+                                                        @RequestHeader(value = RequestDeadlines.DEADLINE_HEADER, required = false) String deadlineHeader,
+                                                        @RequestHeader(value = RequestDeadlines.TIMEOUT_HEADER, required = false) String timeoutHeader,
+                                                        @AuthenticationPrincipal UserDetails userDetails){
         log.info("=== CHAT ASSISTANT API CALL STARTED ===");
         log.info("Request received: {}", request);
+        // the owner of the turn (and of an async job) is the caller, never a userId sent in the body
+        request.setUserId(userDetailsService.findByUsername(userDetails.getUsername()).getId());
+        if (async) {
+            // background jobs outlive the HTTP request, so the client's deadline doesn't apply to them
+            DeferredResult<ResponseEntity<?>> queued = new DeferredResult<>();
+            queued.setResult(submitGenerationJob(request));
+            return queued;
+        }
+        Deadline deadline = requestDeadlines.resolve(deadlineHeader, timeoutHeader, assistantDeadline);
+        if (deadline.isExpired()) {
+            DeferredResult<ResponseEntity<?>> expired = new DeferredResult<>();
+            expired.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Request deadline exceeded"));
+            return expired;
+        }
+        CancellationSignal cancellation = new CancellationSignal();
+        request.setDeadline(deadline);
+        request.setCancellation(cancellation);
+
+        // Generation runs off the servlet thread so a client disconnect (async error) can cancel it mid-flight.
+        // A timeout of 0 would mean "never", so it is at least 1 ms even if the deadline passes right now.
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(Math.max(1, deadline.remaining().toMillis()));
+        Future<?> generation = generationTaskRunner.submit(() -> {
+            result.setResult(generateResponse(request));
+            return null;
+        });
+        cancellation.onCancel(() -> generation.cancel(true));
+        result.onError(error -> {
+            log.info("Client disconnected from chat assistant request, cancelling generation");
+            cancellation.cancel();
+        });
+        result.onTimeout(() -> {
+            cancellation.cancel();
+            result.setErrorResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Request deadline exceeded"));
+        });
+        return result;
+    }
+
+    private ResponseEntity<?> generateResponse(ContentGenerationRequest request) {
         try{
             ChatMessageDTO response = chatService.getResponse(request);
             log.info("Chat service response generated successfully");
             log.info("=== CHAT ASSISTANT API CALL COMPLETED SUCCESSFULLY ===");
             return ResponseEntity.ok(response);
+        } catch(DeadlineExceededException ex){
+            log.warn("Chat assistant request exceeded its deadline: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ex.getMessage());
+        } catch(GenerationCancelledException ex){
+            log.info("Chat assistant generation cancelled: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
         } catch(Exception ex){
             log.error("Error in chat assistant endpoint", ex);
             return ResponseEntity.badRequest().body("bad Request");
         }
     }
 
+    private ResponseEntity<?> submitGenerationJob(ContentGenerationRequest request) {
+        try {
+            GenerationJobDTO job = generationJobService.submit(request);
+            log.info("=== CHAT ASSISTANT JOB {} QUEUED ===", job.jobId());
+            return ResponseEntity.accepted().body(job);
+        } catch (GenerationJobRejectedException ex) {
+            log.warn("Generation job rejected: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Error queuing chat assistant job", ex);
+            return ResponseEntity.badRequest().body("bad Request");
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<GenerationJobDTO> getGenerationJob(@PathVariable String jobId, @AuthenticationPrincipal UserDetails userDetails){
+        Long userId = userDetailsService.findByUsername(userDetails.getUsername()).getId();
+        return generationJobService.getJob(jobId, userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(value = "/assistant/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<SseEmitter> streamResponse(@RequestBody ContentGenerationRequest request,
+                                              @RequestHeader(value = RequestDeadlines.DEADLINE_HEADER, required = false) String deadlineHeader,
+                                              @RequestHeader(value = RequestDeadlines.TIMEOUT_HEADER, required = false) String timeoutHeader,
+                                              @AuthenticationPrincipal UserDetails userDetails){
+        log.info("=== CHAT ASSISTANT STREAM API CALL STARTED ===");
+        log.info("Stream request received: {}", request);
+        request.setUserId(userDetailsService.findByUsername(userDetails.getUsername()).getId());
+        Deadline deadline = requestDeadlines.resolve(deadlineHeader, timeoutHeader, streamDeadline);
+        if (deadline.isExpired()) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+        CancellationSignal cancellation = new CancellationSignal();
+        request.setDeadline(deadline);
+        request.setCancellation(cancellation);
+        // 0 would mean "never time out"
+        SseEmitter emitter = new SseEmitter(Math.max(1, Math.min(streamTimeoutMs, deadline.remaining().toMillis())));
+        // disconnects surface as emitter errors; either way stop the provider stream
+        emitter.onError(error -> cancellation.cancel());
+        emitter.onTimeout(cancellation::cancel);
+        try{
+            chatService.streamResponse(request, emitter);
+        } catch(Exception ex){
+            log.error("Error starting chat assistant stream", ex);
+            emitter.completeWithError(ex);
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<?> submitBulk(@RequestBody List<ContentGenerationRequest> requests,
+                                 @RequestParam(defaultValue = "INTERACTIVE") BatchExecutionMode mode,
+                                 @AuthenticationPrincipal UserDetails userDetails){
+        try {
+            Long userId = userDetailsService.findByUsername(userDetails.getUsername()).getId();
+            requests.forEach(request -> request.setUserId(userId));
+            GenerationBatchDTO batch = bulkGenerationService.submit(requests, mode);
+            log.info("=== BULK BATCH {} QUEUED ({} items) ===", batch.batchId(), batch.total());
+            return ResponseEntity.accepted().body(batch);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Error queuing bulk batch", ex);
+            return ResponseEntity.badRequest().body("bad Request");
+        }
+    }
+
+    @PostMapping(value = "/bulk/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<?> submitBulkCsv(@RequestParam("file") MultipartFile file,
+                                    @RequestParam(defaultValue = "INTERACTIVE") BatchExecutionMode mode,
+                                    @AuthenticationPrincipal UserDetails userDetails){
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            Long userId = userDetailsService.findByUsername(userDetails.getUsername()).getId();
+            GenerationBatchDTO batch = bulkGenerationService.submit(BulkCsvParser.parse(reader, userId), mode);
+            log.info("=== BULK CSV BATCH {} QUEUED ({} items) ===", batch.batchId(), batch.total());
+            return ResponseEntity.accepted().body(batch);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Error queuing bulk CSV batch", ex);
+            return ResponseEntity.badRequest().body("bad Request");
+        }
+    }
+
+    @GetMapping("/bulk/{batchId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<GenerationBatchDTO> getBulkBatch(@PathVariable String batchId, @AuthenticationPrincipal UserDetails userDetails){
+        Long userId = userDetailsService.findByUsername(userDetails.getUsername()).getId();
+        return bulkGenerationService.getBatch(batchId, userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/bulk/{batchId}/retry")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('USER')")
+    ResponseEntity<GenerationBatchDTO> retryBulkBatch(@PathVariable String batchId, @AuthenticationPrincipal UserDetails userDetails){
+        Long userId = userDetailsService.findByUsername(userDetails.getUsername()).getId();
+        return bulkGenerationService.retryFailed(batchId, userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{sessionId}/messages")
     ResponseEntity<Page<ChatMessageDTO>> getChatHistoryBySession(@PathVariable String sessionId, @RequestBody PageRequestDTO pageRequestDTO, @AuthenticationPrincipal UserDetails userDetails){
         Pageable pageable = PageRequest.of(pageRequestDTO.page(), pageRequestDTO.size(), Sort.by("timestamp").descending());
@@ -0,0 +1,26 @@
+package com.back.postpilot.controller;
+
+import com.back.postpilot.service.image.ImageProviderRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Operational view of the image providers. Lives under /admin so it is restricted to ADMIN by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/admin/images")
+@RequiredArgsConstructor
+public class ImageAdminController {
+
+    private final ImageProviderRouter imageProviderRouter;
+
+    @GetMapping("/providers")
+    public ResponseEntity<Map<String, Object>> getProviderStats() {
+        return ResponseEntity.ok(imageProviderRouter.stats());
+    }
+}
@@ -2,8 +2,11 @@ package com.back.postpilot.controller;
 
 import com.back.postpilot.entity.ContentImage;
 import com.back.postpilot.entity.GeneratedContent;
+import com.back.postpilot.entity.ImageBlob;
 import com.back.postpilot.repository.ContentImageRepository;
 import com.back.postpilot.repository.GeneratedContentRepository;
+import com.back.postpilot.service.image.ImageBlobService;
+import com.back.postpilot.service.image.ImageFileStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
@@ -12,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,14 +25,13 @@ import org.springframework.beans.factory.annotation.Value;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -39,6 +42,8 @@ public class ImageContentController {
 
     private final ContentImageRepository contentImageRepository;
     private final GeneratedContentRepository generatedContentRepository;
+    private final ImageFileStore imageFileStore;
+    private final ImageBlobService imageBlobService;
     
     // Upload directory configuration
     @Value("${image.upload.directory:uploads/images/}")
@@ -47,6 +52,10 @@ public class ImageContentController {
     @Value("${image.serve.url-prefix:/api/images/serve/}")
     private String serveUrlPrefix;
     
+    // blob: bytes live only in the image store; inline: also keep the old base64 copy in image_data
+    @Value("${image.storage.mode:blob}")
+    private String storageMode;
+    
     @Value("${server.port:8080}")
     private String serverPort;
     
@@ -304,42 +313,37 @@ public class ImageContentController {
             
             GeneratedContent generatedContent = generatedContentOpt.get();
             
-            // Create unique filename to avoid conflicts
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null && originalFilename.contains(".") 
-                ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                : ".jpg";
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-            
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDirectory);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                log.info("Created upload directory: {}", uploadPath.toAbsolutePath());
-            }
-            
-            // Store file on disk
-            Path filePath = uploadPath.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("File stored on disk: {}", filePath.toAbsolutePath());
-            
-            // Convert file to base64 for database storage
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String base64Image = Base64.getEncoder().encodeToString(fileBytes);
+            // Store by content hash; bytes we already have only add a reference
+            ImageFileStore.StagedImage staged = imageFileStore.stage(file.getInputStream(), file.getContentType());
+            ImageBlob blob = imageBlobService.acquire(staged);
+            log.info("File stored as {} (referenced {} times)", blob.getFileName(), blob.getRefCount());
             
             // Create ContentImage entity
             ContentImage contentImage = new ContentImage();
             contentImage.setGeneratedContent(generatedContent); // Link to generated content
-            contentImage.setImageUrl(generateFullImageUrl(uniqueFileName)); // Full serving URL
-            contentImage.setImageData(base64Image); // Base64 data for database storage
+            contentImage.setImageUrl(generateFullImageUrl(blob.getFileName())); // Full serving URL
+            contentImage.setBlob(blob);
+            if ("inline".equalsIgnoreCase(storageMode)) {
+                byte[] fileBytes = Files.readAllBytes(imageFileStore.resolve(blob.getFileName()));
+                contentImage.setImageData(Base64.getEncoder().encodeToString(fileBytes)); // Base64 data for database storage
+            }
             contentImage.setImagePrompt(imagePrompt != null ? imagePrompt : "User uploaded image");
             contentImage.setAltText(altText != null ? altText : file.getOriginalFilename());
             contentImage.setFileName(fileName != null ? fileName : file.getOriginalFilename());
-            contentImage.setFileSize(fileSize != null ? fileSize : String.valueOf(file.getSize()));
+            contentImage.setFileSize(fileSize != null ? fileSize : String.valueOf(blob.getSize()));
+            contentImage.setMimeType(blob.getMimeType());
+            contentImage.setWidth(blob.getWidth());
+            contentImage.setHeight(blob.getHeight());
             contentImage.setGeneratedAt(LocalDateTime.now());
             
             // Save to database
-            ContentImage savedImage = contentImageRepository.save(contentImage);
+            ContentImage savedImage;
+            try {
+                savedImage = contentImageRepository.save(contentImage);
+            } catch (RuntimeException e) {
+                imageBlobService.release(blob.getId());
+                throw e;
+            }
             
             // Add to generated content's images list
             if (generatedContent.getImages() == null) {
@@ -381,15 +385,23 @@ public class ImageContentController {
                 }
             }
             
-            // Regular file serving
-            Path filePath = Paths.get(uploadDirectory).resolve(fileName).normalize();
+            // Content-addressed files live in nested directories; older uploads sit flat in the upload directory
+            boolean contentAddressed = imageFileStore.isBlobName(fileName);
+            Path filePath = contentAddressed
+                ? imageFileStore.resolve(fileName)
+                : Paths.get(uploadDirectory).resolve(fileName).normalize();
             Resource resource = new UrlResource(filePath.toUri());
             
             if (resource.exists() && resource.isReadable()) {
                 // Determine content type based on file extension
                 String contentType = getContentType(fileName);
                 
+                // the name is the hash of the bytes, so they can never change
+                CacheControl cacheControl = contentAddressed
+                    ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                    : CacheControl.empty();
                 return ResponseEntity.ok()
+                    .cacheControl(cacheControl)
                     .contentType(MediaType.parseMediaType(contentType))
                     .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
                     .body(resource);
@@ -408,7 +420,7 @@ public class ImageContentController {
      * Serve image by ID (fallback for images with null URLs)
      * 
      * @param id Image ID
-     * @return Image as resource (from base64 data)
+     * @return Image as resource (from the image store, or legacy base64 data)
      */
     @GetMapping("/serve/data/{id}")
     public ResponseEntity<Resource> serveImageById(@PathVariable Long id) {
@@ -420,7 +432,9 @@ public class ImageContentController {
                 ContentImage image = imageOpt.get();
                 String base64Data = image.getImageData();
                 
-                if (base64Data != null && !base64Data.isEmpty()) {
+                if (image.getBlob() != null) {
+                    return serveImage(image.getBlob().getFileName());
+                } else if (base64Data != null && !base64Data.isEmpty()) {
                     // Convert base64 to byte array
                     byte[] imageBytes = Base64.getDecoder().decode(base64Data);
                     
@@ -450,7 +464,7 @@ public class ImageContentController {
     }
 
     /**
-     * Get base64 image data from database
+     * Get base64 image data, encoded from the image store (or legacy data still in the database)
      * 
      * @param id Image ID
      * @return Base64 image data
@@ -464,6 +478,10 @@ public class ImageContentController {
             if (imageOpt.isPresent()) {
                 ContentImage image = imageOpt.get();
                 String base64Data = image.getImageData();
+                if (image.getBlob() != null) {
+                    Path blobPath = imageFileStore.resolve(image.getBlob().getFileName());
+                    base64Data = Files.exists(blobPath) ? Base64.getEncoder().encodeToString(Files.readAllBytes(blobPath)) : null;
+                }
                 
                 if (base64Data != null && !base64Data.isEmpty()) {
                     return ResponseEntity.ok(base64Data);
@@ -504,11 +522,7 @@ public class ImageContentController {
      * Helper method to generate full URL for image serving
      */
     private String generateFullImageUrl(String fileName) {
-        String baseUrl = "http://localhost:" + serverPort;
-        if (contextPath != null && !contextPath.isEmpty()) {
-            baseUrl += contextPath;
-        }
-        return baseUrl + serveUrlPrefix + fileName;
+        return imageFileStore.serveUrl(fileName);
     }
     
     /**
@@ -599,8 +613,10 @@ public class ImageContentController {
         try {
             log.info("Deleting image with ID: {}", id);
             
-            if (contentImageRepository.existsById(id)) {
-                contentImageRepository.deleteById(id);
+            Optional<ContentImage> imageOpt = contentImageRepository.findById(id);
+            if (imageOpt.isPresent()) {
+                // the stored file is released by ImageBlobReleaseListener once the delete commits
+                contentImageRepository.delete(imageOpt.get());
                 log.info("Successfully deleted image with ID: {}", id);
                 return ResponseEntity.ok().build();
             } else {
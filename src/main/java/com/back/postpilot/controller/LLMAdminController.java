@@ -0,0 +1,75 @@
+package com.back.postpilot.controller;
+
+import com.back.postpilot.service.generation.SingleFlight;
+import com.back.postpilot.service.llm.ChatProviderRouter;
+import com.back.postpilot.service.llm.ConcurrencyLimiterRegistry;
+import com.back.postpilot.service.llm.LLMResponseCache;
+import com.back.postpilot.service.llm.LLMTaskRouter;
+import com.back.postpilot.service.llm.PromptCacheStats;
+import com.back.postpilot.service.llm.SemanticResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Operational view of the LLM layer. Lives under /admin so it is restricted to ADMIN by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/admin/llm")
+@RequiredArgsConstructor
+public class LLMAdminController {
+
+    private final LLMResponseCache responseCache;
+    private final SemanticResponseCache semanticResponseCache;
+    private final SingleFlight singleFlight;
+    private final ConcurrencyLimiterRegistry limiterRegistry;
+    private final ChatProviderRouter chatProviderRouter;
+    private final LLMTaskRouter llmTaskRouter;
+    private final PromptCacheStats promptCacheStats;
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+
+    @GetMapping("/semantic-cache")
+    public ResponseEntity<Map<String, Object>> getSemanticCacheStats() {
+        return ResponseEntity.ok(semanticResponseCache.stats());
+    }
+
+    @GetMapping("/in-flight")
+    public ResponseEntity<Map<String, Object>> getInFlightStats() {
+        return ResponseEntity.ok(singleFlight.stats());
+    }
+
+    @GetMapping("/providers")
+    public ResponseEntity<Map<String, Map<String, Object>>> getProviderLimits() {
+        return ResponseEntity.ok(limiterRegistry.stats());
+    }
+
+    @GetMapping("/router")
+    public ResponseEntity<Map<String, Map<String, Object>>> getRouterStats() {
+        return ResponseEntity.ok(chatProviderRouter.stats());
+    }
+
+    @GetMapping("/tasks")
+    public ResponseEntity<Map<String, Object>> getTaskRouting() {
+        return ResponseEntity.ok(llmTaskRouter.stats());
+    }
+
+    @GetMapping("/prompt-cache")
+    public ResponseEntity<Map<String, Map<String, Object>>> getPromptCacheStats() {
+        return ResponseEntity.ok(promptCacheStats.stats());
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<String> clearCache() {
+        responseCache.clear();
+        return ResponseEntity.ok("LLM response cache cleared");
+    }
+}
@@ -1,9 +1,14 @@
 package com.back.postpilot.domain;
 
 import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.EnumTypeConstants.GenerationMode;
+import com.back.postpilot.service.generation.CancellationSignal;
+import com.back.postpilot.service.generation.Deadline;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 @Builder
@@ -20,4 +25,21 @@ public class ContentGenerationRequest {
     private String tone;
     private Map<String, Object> additionalParameters;
     private int maxCharacters;
+    private GenerationMode generationMode;
+    // When set, one base draft is generated and adapted for each of these platforms instead of just `platform`
+    private List<String> targetPlatforms;
+    // Deliberate resubmit: skip the response caches and generate fresh text (the new text is cached)
+    private boolean regenerate;
+
+    // Summary + recent turns of the session, filled in by ConversationMemory; never read from the API body
+    @JsonIgnore
+    private String conversationContext;
+
+    // Set from the request deadline headers (or the endpoint default) by the controller
+    @JsonIgnore
+    private Deadline deadline;
+
+    // Raised by the controller when the client disconnects; null for background jobs
+    @JsonIgnore
+    private CancellationSignal cancellation;
 }
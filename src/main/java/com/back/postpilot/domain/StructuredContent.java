@@ -0,0 +1,14 @@
+package com.back.postpilot.domain;
+
+import java.util.List;
+
+/**
+ * Shape of the single JSON object the model returns in {@link com.back.postpilot.EnumTypeConstants.GenerationMode#STRUCTURED} mode.
+ */
+public record StructuredContent(
+        String title,
+        String summary,
+        String content,
+        List<String> hashtags
+) {
+}
@@ -38,6 +38,14 @@ public class ChatSession {
     @Column(name = "status")
     private ChatStatus status; // ACTIVE, ARCHIVED, DELETED
 
+    // Rolling summary of turns older than the memory window. Written only by ChatSessionRepository.updateSummary,
+    // so merging a detached session at the end of a turn never overwrites a newer summary.
+    @Column(name = "summary", columnDefinition = "TEXT", insertable = false, updatable = false)
+    private String summary;
+
+    @Column(name = "summarized_through_message_id", insertable = false, updatable = false)
+    private Long summarizedThroughMessageId;
+
     @OneToMany(mappedBy = "chatSession", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ChatMessage> messages = new ArrayList<>();
 
@@ -1,5 +1,7 @@
 package com.back.postpilot.entity;
 
+import com.back.postpilot.EnumTypeConstants.ImageStorageStatus;
+import com.back.postpilot.service.image.ImageBlobReleaseListener;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
@@ -9,6 +11,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ImageBlobReleaseListener.class)
 @Table(name = "p_content_image")
 @Data
 @NoArgsConstructor
@@ -39,9 +42,39 @@ public class ContentImage {
     @Column(name = "file_size", length = 64)
     private String fileSize;
 
+    // Legacy inline copy of the bytes (base64); only written with image.storage.mode=inline and moved into
+    // the blob store by ImageDataMigrationService otherwise. Never sent with the gallery listings.
     @Column(name = "image_data", columnDefinition = "TEXT")
+    @JsonIgnore
     private String imageData;
 
+    // Stored bytes, shared with every other image that has the same content
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    @JsonIgnore
+    private ImageBlob blob;
+
+    @Column(name = "mime_type", length = 64)
+    private String mimeType;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    // Provider images are copied into our own store in the background; null for uploads and older rows
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_status", length = 16)
+    private ImageStorageStatus storageStatus;
+
+    @Column(name = "storage_attempts")
+    private Integer storageAttempts;
+
+    // Position in a carousel; null for single images
+    @Column(name = "slide_index")
+    private Integer slideIndex;
+
     @Column(name = "generated_at")
     private LocalDateTime generatedAt;
 }
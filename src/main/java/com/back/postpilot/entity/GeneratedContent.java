@@ -72,9 +72,14 @@ public class GeneratedContent {
     private ContentStatus status = ContentStatus.DRAFT;
 
     @OneToMany(mappedBy = "generatedContent", cascade = CascadeType.ALL)
+    @OrderBy("slideIndex ASC, id ASC")
     @Builder.Default
     private List<ContentImage> images = new ArrayList<>();
 
     @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
+
+    // Shared by the sibling per-platform versions of one fan-out draft; null for single-platform content
+    @Column(name = "variant_group")
+    private String variantGroup;
 }
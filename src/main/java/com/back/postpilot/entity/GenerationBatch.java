@@ -0,0 +1,64 @@
+package com.back.postpilot.entity;
+
+import com.back.postpilot.EnumTypeConstants.BatchExecutionMode;
+import com.back.postpilot.EnumTypeConstants.GenerationBatchStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk generation request. Each item is a {@link GenerationJob} row carrying this batch's id and its
+ * position, so results are persisted item by item and a retry only re-runs the items that failed.
+ */
+@Entity
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "p_generation_batch")
+public class GenerationBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "batch_id", unique = true, nullable = false)
+    private String batchId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    @Builder.Default
+    private GenerationBatchStatus status = GenerationBatchStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "execution_mode")
+    @Builder.Default
+    private BatchExecutionMode executionMode = BatchExecutionMode.INTERACTIVE;
+
+    // Off-peak batches only: the provider batch currently in flight
+    @Column(name = "provider")
+    private String provider;
+
+    @Column(name = "provider_batch_id")
+    private String providerBatchId;
+
+    @Column(name = "total_items")
+    private Integer totalItems;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,83 @@
+package com.back.postpilot.entity;
+
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued /chat/assistant request. The serialized request and the resulting ChatMessageDTO are stored
+ * alongside the owning {@link ChatSession} so jobs can be recovered after a restart.
+ */
+@Entity
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "p_generation_job")
+@ToString(exclude = "chatSession")
+public class GenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", unique = true, nullable = false)
+    private String jobId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_session_id")
+    @JsonIgnore
+    private ChatSession chatSession;
+
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Set for items of a bulk request (see GenerationBatch); null for single async jobs
+    @Column(name = "batch_id")
+    private String batchId;
+
+    @Column(name = "batch_index")
+    private Integer batchIndex;
+
+    // Off-peak items: the PROCESSING content row the provider batch result is written into
+    @Column(name = "generated_content_id")
+    private Long generatedContentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    @Builder.Default
+    private GenerationJobStatus status = GenerationJobStatus.QUEUED;
+
+    @Column(name = "request_payload", columnDefinition = "TEXT")
+    private String requestPayload;
+
+    @Column(name = "result_payload", columnDefinition = "TEXT")
+    private String resultPayload;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "attempts")
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,51 @@
+package com.back.postpilot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored image file, keyed by the SHA-256 of its bytes. Every {@link ContentImage} showing these bytes
+ * references the same blob; refCount counts them and the file is deleted when the last one goes.
+ */
+@Entity
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "p_image_blob")
+public class ImageBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sha256", length = 64, unique = true, nullable = false)
+    private String sha256;
+
+    // "<sha256>.<ext>", laid out in nested directories by ImageFileStore
+    @Column(name = "file_name", length = 80, nullable = false)
+    private String fileName;
+
+    @Column(name = "mime_type", length = 64)
+    private String mimeType;
+
+    @Column(name = "size_bytes")
+    private Long size;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -70,6 +70,26 @@ public class PushNotification implements INotification{
             log.debug("SSE connection removed for user: {}", userId);
         }
     }
+    /**
+     * Sends an arbitrary named event to the user's notification stream, if they are connected.
+     * Returns false when the user has no open connection or the send failed.
+     */
+    public static boolean sendEvent(String userId, String eventName, String jsonData) {
+        SseEmitter emitter = userEmitters.get(userId);
+        if (emitter == null) {
+            log.debug(" No active SSE connection for User ID: {} (user not online)", userId);
+            return false;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(jsonData));
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Failed to send SSE event {} to user: {} - {}", eventName, userId, e.getMessage());
+            userEmitters.remove(userId);
+            return false;
+        }
+    }
+
     public static boolean isUserConnected(String userId) {
         return userEmitters.containsKey(userId);
     }
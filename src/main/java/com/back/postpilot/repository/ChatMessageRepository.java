@@ -7,6 +7,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 
 @Repository
@@ -14,6 +16,12 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long >
     @Query(" SELECT new com.back.postpilot.DTO.ChatMessageDTO(m.id, m.chatSession.sessionId, m.content, m.messageType, m.timestamp) " +
         "FROM ChatMessage m WHERE m.chatSession.id = :chatSessionId ORDER BY m.timestamp DESC ")
     Page<ChatMessageDTO> findByChatSessionOrderBySequenceNumberDesc(@Param("chatSessionId") Long chatSessionId, Pageable pageable);
+
+    long countByChatSessionId(Long chatSessionId);
+
+    List<ChatMessage> findByChatSessionIdOrderByIdDesc(Long chatSessionId, Pageable pageable);
+
+    List<ChatMessage> findByChatSessionIdAndIdGreaterThanAndIdLessThanOrderByIdAsc(Long chatSessionId, Long afterId, Long beforeId);
 }
 
 
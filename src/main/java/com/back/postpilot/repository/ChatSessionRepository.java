@@ -4,6 +4,7 @@ import com.back.postpilot.DTO.ChatHistoryDTO;
 import com.back.postpilot.entity.ChatSession;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,8 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
 
     @Query("SELECT c.id FROM ChatSession c WHERE c.sessionId = :sessionId")
     Long findIdBySessionId(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("UPDATE ChatSession c SET c.summary = :summary, c.summarizedThroughMessageId = :throughMessageId WHERE c.id = :id")
+    int updateSummary(@Param("id") Long id, @Param("summary") String summary, @Param("throughMessageId") Long throughMessageId);
 }
@@ -1,10 +1,14 @@
 package com.back.postpilot.repository;
 
+import com.back.postpilot.EnumTypeConstants.ImageStorageStatus;
 import com.back.postpilot.entity.ContentImage;
+import com.back.postpilot.entity.ImageBlob;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -57,6 +61,60 @@ public interface ContentImageRepository extends JpaRepository<ContentImage, Long
            "LOWER(ci.altText) LIKE LOWER(CONCAT('%', :tag, '%')) OR " +
            "LOWER(ci.imagePrompt) LIKE LOWER(CONCAT('%', :tag, '%'))")
     List<ContentImage> findByTag(@Param("tag") String tag, Sort sort);
-}
 
+    List<ContentImage> findByStorageStatusAndIdGreaterThanOrderByIdAsc(ImageStorageStatus storageStatus, Long id, Pageable pageable);
+
+    /**
+     * Points a still-PENDING image at its stored blob, touching only the storage columns.
+     * Returns 0 if the image was deleted or is no longer pending.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentImage ci " +
+           "SET ci.blob = :blob, ci.imageUrl = :imageUrl, ci.fileSize = :fileSize, ci.mimeType = :mimeType, " +
+           "ci.width = COALESCE(:width, ci.width), ci.height = COALESCE(:height, ci.height), " +
+           "ci.storageStatus = com.back.postpilot.EnumTypeConstants.ImageStorageStatus.STORED " +
+           "WHERE ci.id = :id AND ci.storageStatus = com.back.postpilot.EnumTypeConstants.ImageStorageStatus.PENDING")
+    int markStored(@Param("id") Long id, @Param("blob") ImageBlob blob, @Param("imageUrl") String imageUrl,
+                   @Param("fileSize") String fileSize, @Param("mimeType") String mimeType,
+                   @Param("width") Integer width, @Param("height") Integer height);
+
+    /**
+     * Records a failed storage attempt on a still-PENDING image; {@code storageStatus} is PENDING to retry or FAILED.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentImage ci SET ci.storageAttempts = :attempts, ci.storageStatus = :storageStatus " +
+           "WHERE ci.id = :id AND ci.storageStatus = com.back.postpilot.EnumTypeConstants.ImageStorageStatus.PENDING")
+    int recordStorageAttempt(@Param("id") Long id, @Param("attempts") Integer attempts,
+                             @Param("storageStatus") ImageStorageStatus storageStatus);
+
+    /**
+     * Ids only, so walking the rows that still carry inline base64 doesn't load it
+     */
+    @Query("SELECT ci.id FROM ContentImage ci WHERE ci.imageData IS NOT NULL AND ci.id > :afterId ORDER BY ci.id")
+    List<Long> findIdsWithImageDataAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Moves a row's inline data to its new blob, touching only the storage columns. {@code imageUrl} null keeps the
+     * current URL. Returns 0 if the row was deleted, lost its inline data or got a blob elsewhere meanwhile.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentImage ci " +
+           "SET ci.blob = :blob, ci.imageUrl = COALESCE(:imageUrl, ci.imageUrl), ci.fileSize = :fileSize, " +
+           "ci.mimeType = :mimeType, ci.width = COALESCE(:width, ci.width), ci.height = COALESCE(:height, ci.height), " +
+           "ci.imageData = NULL " +
+           "WHERE ci.id = :id AND ci.imageData IS NOT NULL AND ci.blob IS NULL")
+    int moveImageDataToBlob(@Param("id") Long id, @Param("blob") ImageBlob blob, @Param("imageUrl") String imageUrl,
+                            @Param("fileSize") String fileSize, @Param("mimeType") String mimeType,
+                            @Param("width") Integer width, @Param("height") Integer height);
 
+    /**
+     * Drops the inline copy of a row that already has a blob.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ContentImage ci SET ci.imageData = NULL WHERE ci.id = :id AND ci.imageData IS NOT NULL AND ci.blob IS NOT NULL")
+    int clearImageData(@Param("id") Long id);
+}
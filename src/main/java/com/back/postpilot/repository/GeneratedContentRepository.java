@@ -13,11 +13,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface GeneratedContentRepository extends JpaRepository<GeneratedContent, Long> {
     List<GeneratedContent> findByChatMessageIdIn(List<Long> chatMessageId);
 
+    List<GeneratedContent> findByVariantGroupInOrderByIdAsc(Collection<String> variantGroups);
+
     @Modifying
     @Transactional
     @Query("UPDATE GeneratedContent g " +
@@ -0,0 +1,19 @@
+package com.back.postpilot.repository;
+
+import com.back.postpilot.EnumTypeConstants.BatchExecutionMode;
+import com.back.postpilot.EnumTypeConstants.GenerationBatchStatus;
+import com.back.postpilot.entity.GenerationBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GenerationBatchRepository extends JpaRepository<GenerationBatch, Long> {
+    Optional<GenerationBatch> findByBatchId(String batchId);
+
+    List<GenerationBatch> findByExecutionModeAndStatusInOrderByCreatedAtAsc(BatchExecutionMode executionMode,
+                                                                           Collection<GenerationBatchStatus> statuses);
+}
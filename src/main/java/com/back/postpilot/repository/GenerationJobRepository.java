@@ -0,0 +1,26 @@
+package com.back.postpilot.repository;
+
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import com.back.postpilot.entity.GenerationJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, Long> {
+    Optional<GenerationJob> findByJobId(String jobId);
+
+    List<GenerationJob> findByBatchIdIsNullAndStatusInOrderByCreatedAtAsc(Collection<GenerationJobStatus> statuses);
+
+    List<GenerationJob> findByBatchIdOrderByBatchIndexAsc(String batchId);
+
+    List<GenerationJob> findByBatchIdAndStatusOrderByBatchIndexAsc(String batchId, GenerationJobStatus status, Pageable pageable);
+
+    List<GenerationJob> findByBatchIdAndStatusIn(String batchId, Collection<GenerationJobStatus> statuses);
+
+    long countByBatchIdAndStatus(String batchId, GenerationJobStatus status);
+}
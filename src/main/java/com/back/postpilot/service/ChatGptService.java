@@ -1,72 +1,99 @@
 package com.back.postpilot.service;
 
 import com.back.postpilot.domain.ContentGenerationRequest;
-import com.back.postpilot.entity.ChatMessage;
-import com.back.postpilot.entity.ChatSession;
-import com.back.postpilot.EnumTypeConstants.MessageType;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.llm.ChatProviderRouter;
+import com.back.postpilot.service.llm.ConcurrencyLimitAdvisor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.beans.factory.annotation.Qualifier;
-
-import java.time.LocalDateTime;
+import reactor.core.publisher.Flux;
 
 @Slf4j
 @Service("chatgptService")
 public class ChatGptService implements LLMService {
 
-    private final ChatClient azureOpenAiChatClient;
+    private final ChatProviderRouter chatProviderRouter;
 
-    public ChatGptService(@Qualifier("AzureOpenAiChatClient") ChatClient azureOpenAiChatClient) {
-        this.azureOpenAiChatClient = azureOpenAiChatClient;
+    public ChatGptService(ChatProviderRouter chatProviderRouter) {
+        this.chatProviderRouter = chatProviderRouter;
     }
 
     @Override
-    public ChatMessage generateChatMessage(String prompt, ChatSession session, ContentGenerationRequest request) {
-        ChatMessage aiMessage = new ChatMessage();
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        return chatResponse(ChatPrompts.titlePrompt(prompt), request.getDeadline());
+    }
 
-        if (session.getTitle() == null || session.getTitle().isEmpty()) {
-            String titlePrompt = "Generate a short, descriptive title (max 50 characters) for this query:\n\n"
-                    + prompt +
-                    "\n\nReturn ONLY the title text, no explanation, no formatting.";
-            session.setTitle(chatResponse(titlePrompt));
-        }
+    @Override
+    public String generateRawResponse(String prompt, ContentGenerationRequest request){
+        return chatResponse(prompt, request.getDeadline());
+    }
 
-        if (!request.getPlatform().equalsIgnoreCase("default")) {
-            prompt += "only summarize this Because we are going to another detailed response below";
+    /**
+     * Sends the system prompt as a real system message ahead of the user message. Keeping that static prefix
+     * first and byte-identical across requests is what lets OpenAI/Azure serve it from their prompt cache.
+     */
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return chatResponse(userPrompt, request.getDeadline());
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be empty");
         }
+        return chatProviderRouter.call(client -> client
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .system(systemPrompt)
+                .user(userPrompt)
+                .call()
+                .content(), request.getDeadline());
+    }
 
-        String aiResponse = chatResponse(prompt);
-        session.setUpdatedAt(LocalDateTime.now());
-        aiMessage.setContent(aiResponse);
-        aiMessage.setMessageType(MessageType.ASSISTANT);
-        aiMessage.setChatSession(session);
-        aiMessage.setTimestamp(LocalDateTime.now());
-        return aiMessage;
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        log.debug("Streaming chat response for prompt: {}", prompt);
+        return chatProviderRouter.stream(client -> client
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .user(prompt)
+                .stream()
+                .content());
     }
 
     @Override
-    public String generateRawResponse(String prompt, ContentGenerationRequest request){
-        return chatResponse(prompt);
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return streamRawResponse(userPrompt, request);
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        return chatProviderRouter.stream(client -> client
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .system(systemPrompt)
+                .user(userPrompt)
+                .stream()
+                .content());
     }
 
-    private String chatResponse(String prompt) {
-        try {
-            if (prompt == null || prompt.trim().isEmpty()) {
-                return "Prompt cannot be empty";
-            }
-            
-            log.debug("Calling Azure OpenAI with prompt: {}", prompt);
-            String response = azureOpenAiChatClient
-                    .prompt()
-                    .user(prompt)
-                    .call()
-                    .content();
-            log.debug("Azure OpenAI response: {}", response);
-            return response;
-        } catch (Exception ex) {
-            log.error("Error calling Azure OpenAI: ", ex);
-            return "bad Request";
+    private String chatResponse(String prompt, Deadline deadline) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            return "Prompt cannot be empty";
         }
+
+        // Failures surface as LLMProviderException instead of a "bad Request" string being saved as content
+        log.debug("Calling chat providers with prompt: {}", prompt);
+        String response = chatProviderRouter.call(client -> client
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(deadline))
+                .user(prompt)
+                .call()
+                .content(), deadline);
+        log.debug("Chat response: {}", response);
+        return response;
     }
 }
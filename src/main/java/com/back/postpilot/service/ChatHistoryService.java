@@ -21,6 +21,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -62,26 +63,27 @@ public class ChatHistoryService {
         Page<ChatMessageDTO> chatmessagePage = chatMessageRepository.findByChatSessionOrderBySequenceNumberDesc(chatSessionId, pageable);
         List<Long> chatIdList = chatmessagePage.stream().map(ChatMessageDTO::getId).toList();
         List<GeneratedContent> generatedContents = generatedContentRepository.findByChatMessageIdIn(chatIdList);
-        Map<Long, GenerateContentDTO> generatedContentMap = generatedContents.stream()
-                .collect(Collectors.toMap(
-                        gc -> gc.getChatMessage().getId(),
-                        gc -> new GenerateContentDTO(
-                                gc.getId(),
-                                gc.getTitle(),
-                                gc.getContent(),
-                                gc.getHashtags(),
-                                gc.getPlatform().getPlatform(),
-                                gc.getCreatedAt(),
-                                gc.getContentType(),
-                                gc.getStatus(),
-                                gc.getImages(),
-                                gc.getMetadata() != null ? gc.getMetadata() : null
-                        )
-                ));
+        Map<Long, GeneratedContent> generatedContentMap = generatedContents.stream()
+                .collect(Collectors.toMap(gc -> gc.getChatMessage().getId(), gc -> gc));
+
+        // fan-out turns: only the primary version is linked to the message, its siblings share its variant group
+        List<String> variantGroups = generatedContents.stream()
+                .map(GeneratedContent::getVariantGroup)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, List<GenerateContentDTO>> variantMap = variantGroups.isEmpty()
+                ? Map.of()
+                : generatedContentRepository.findByVariantGroupInOrderByIdAsc(variantGroups).stream()
+                        .collect(Collectors.groupingBy(GeneratedContent::getVariantGroup,
+                                Collectors.mapping(this::toDTO, Collectors.toList())));
 
         List<ChatMessageDTO> updatedContent = chatmessagePage.stream()
                 .peek(dto -> {
-                    dto.setGenerateContentDTO(generatedContentMap.get(dto.getId())); // set nested DTO
+                    GeneratedContent gc = generatedContentMap.get(dto.getId());
+                    dto.setGenerateContentDTO(gc != null ? toDTO(gc) : null); // set nested DTO
+                    if (gc != null && gc.getVariantGroup() != null) {
+                        dto.setPlatformContents(variantMap.get(gc.getVariantGroup()));
+                    }
                 })
                 .toList();
         return new PageImpl<>(
@@ -90,4 +92,19 @@ public class ChatHistoryService {
                 chatmessagePage.getTotalElements()
         );
     }
+
+    private GenerateContentDTO toDTO(GeneratedContent gc) {
+        return new GenerateContentDTO(
+                gc.getId(),
+                gc.getTitle(),
+                gc.getContent(),
+                gc.getHashtags(),
+                gc.getPlatform().getPlatform(),
+                gc.getCreatedAt(),
+                gc.getContentType(),
+                gc.getStatus(),
+                gc.getImages(),
+                gc.getMetadata() != null ? gc.getMetadata() : null
+        );
+    }
 }
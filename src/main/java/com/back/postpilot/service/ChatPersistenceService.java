@@ -0,0 +1,175 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.EnumTypeConstants.ChatStatus;
+import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
+import com.back.postpilot.EnumTypeConstants.ContentStatus;
+import com.back.postpilot.EnumTypeConstants.MessageType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GeneratedContent;
+import com.back.postpilot.repository.ChatMessageRepository;
+import com.back.postpilot.repository.ChatSessionRepository;
+import com.back.postpilot.repository.GeneratedContentRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short transactional phases of a chat turn. Provider calls (LLM, images) happen between
+ * {@link #openTurn} and {@link #completeTurn} with no transaction or pooled connection held,
+ * so connection usage scales with DB work rather than provider latency.
+ */
+@Service
+public class ChatPersistenceService {
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final GeneratedContentRepository generatedContentRepository;
+
+    public ChatPersistenceService(ChatSessionRepository chatSessionRepository,
+                                  ChatMessageRepository chatMessageRepository,
+                                  GeneratedContentRepository generatedContentRepository) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.generatedContentRepository = generatedContentRepository;
+    }
+
+    /**
+     * Finds or creates the session and saves the user's message.
+     */
+    @Transactional
+    public ChatSession openTurn(ContentGenerationRequest request) {
+        ChatSession session = findOrCreateSession(request);
+
+        ChatMessage userMessage = new ChatMessage();
+        userMessage.setContent(request.getPrompt());
+        userMessage.setMessageType(MessageType.USER);
+        userMessage.setChatSession(session);
+        userMessage.setTimestamp(LocalDateTime.now());
+        chatMessageRepository.save(userMessage);
+        return session;
+    }
+
+    @Transactional
+    public ChatSession findOrCreateSession(ContentGenerationRequest request) {
+        return chatSessionRepository.findBySessionId(request.getSessionId())
+                .orElseGet(() -> {
+                    ChatSession newSession = new ChatSession();
+                    newSession.setUserId(request.getUserId());
+                    newSession.setSessionId(UUID.randomUUID().toString());
+                    newSession.setStatus(ChatStatus.ACTIVE);
+                    newSession.setCreatedAt(LocalDateTime.now());
+                    return chatSessionRepository.save(newSession);
+                });
+    }
+
+    /**
+     * Persists the session changes (title, updatedAt), the assistant message and, if present,
+     * the platform content together with its images in one transaction.
+     */
+    @Transactional
+    public GeneratedContent completeTurn(ChatSession session, ChatMessage aiMessage, GeneratedContent generatedContent) {
+        ChatSession managedSession = chatSessionRepository.save(session);
+        aiMessage.setChatSession(managedSession);
+        chatMessageRepository.save(aiMessage);
+        if (generatedContent == null) {
+            return null;
+        }
+        generatedContent.setChatMessage(aiMessage);
+        return generatedContentRepository.save(generatedContent);
+    }
+
+    /**
+     * Multi-platform variant of {@link #completeTurn}: saves the assistant message and every platform
+     * version as sibling rows in one transaction. The first version is linked to the message (the
+     * message-to-content link is one-to-one); all of them share the session and a variant group.
+     */
+    @Transactional
+    public List<GeneratedContent> completeFanOutTurn(ChatSession session, ChatMessage aiMessage, List<GeneratedContent> contents) {
+        ChatSession managedSession = chatSessionRepository.save(session);
+        aiMessage.setChatSession(managedSession);
+        chatMessageRepository.save(aiMessage);
+        if (contents.isEmpty()) {
+            return List.of();
+        }
+        String variantGroup = UUID.randomUUID().toString();
+        // the primary version linked to the message is the first in the requested platform order that succeeded;
+        // the others are found through the variant group, and ids follow the same order
+        for (int i = 0; i < contents.size(); i++) {
+            GeneratedContent content = contents.get(i);
+            content.setChatMessage(i == 0 ? aiMessage : null);
+            content.setChatSession(managedSession);
+            content.setVariantGroup(variantGroup);
+        }
+        return generatedContentRepository.saveAll(contents);
+    }
+
+    /**
+     * Placeholder for content that a provider batch will produce later; it shows up as PROCESSING until
+     * {@link #completePendingContent} fills it in.
+     */
+    @Transactional
+    public GeneratedContent createPendingContent(ChatSession session, ContentGenerationRequest request, ContentPlatForms platform) {
+        GeneratedContent pending = GeneratedContent.builder()
+                .chatSession(session)
+                .platform(platform)
+                .contentType(request.getContentType())
+                .title(platform.getPlatform() + " " + request.getContentType().getLabel() + " on: " + request.getPrompt())
+                .status(ContentStatus.PROCESSING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        return generatedContentRepository.save(pending);
+    }
+
+    /**
+     * Saves the assistant message of a batch-generated turn and copies the generated content into its
+     * placeholder row (if the turn has one), in one transaction.
+     */
+    @Transactional
+    public GeneratedContent completePendingContent(String sessionId, String title, ChatMessage aiMessage,
+                                                   Long pendingContentId, GeneratedContent generated) {
+        ChatSession session = chatSessionRepository.findBySessionId(sessionId)
+                .orElseThrow(() -> new IllegalStateException("Chat session not found for sessionId: " + sessionId));
+        if (session.getTitle() == null || session.getTitle().isEmpty()) {
+            session.setTitle(title);
+        }
+        session.setUpdatedAt(LocalDateTime.now());
+        aiMessage.setChatSession(session);
+        chatMessageRepository.save(aiMessage);
+        if (pendingContentId == null) {
+            return null;
+        }
+
+        GeneratedContent pending = generatedContentRepository.findById(pendingContentId)
+                .orElseThrow(() -> new IllegalStateException("Pending content " + pendingContentId + " no longer exists"));
+        pending.setChatMessage(aiMessage);
+        if (generated != null) {
+            pending.setTitle(generated.getTitle());
+            pending.setContent(generated.getContent());
+            pending.setHashtags(generated.getHashtags());
+            pending.setMetadata(generated.getMetadata());
+        }
+        pending.setStatus(ContentStatus.DRAFT);
+        return generatedContentRepository.save(pending);
+    }
+
+    @Transactional
+    public void discardPendingContent(Long pendingContentId) {
+        generatedContentRepository.findById(pendingContentId)
+                .filter(content -> content.getStatus() == ContentStatus.PROCESSING)
+                .ifPresent(generatedContentRepository::delete);
+    }
+
+    @Transactional
+    public void updateSummary(Long sessionId, String summary, Long throughMessageId) {
+        chatSessionRepository.updateSummary(sessionId, summary, throughMessageId);
+    }
+
+    public int countMessages(ChatSession session) {
+        return (int) chatMessageRepository.countByChatSessionId(session.getId());
+    }
+}
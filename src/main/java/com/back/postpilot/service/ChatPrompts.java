@@ -0,0 +1,116 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.domain.ContentGenerationRequest;
+
+import java.util.List;
+
+/**
+ * Prompt templates shared by every {@link LLMService}, so the chat pipeline can issue
+ * the title and summary calls itself instead of going through generateChatMessage.
+ */
+public final class ChatPrompts {
+
+    private ChatPrompts() {
+    }
+
+    public static String titlePrompt(String prompt) {
+        return "Generate a short, descriptive title (max 50 characters) for this query:\n\n"
+                + prompt +
+                "\n\nReturn ONLY the title text, no explanation, no formatting.";
+    }
+
+    public static String chatPrompt(String prompt, ContentGenerationRequest request) {
+        String withConversation = withConversation(prompt, request);
+        if (!request.getPlatform().equalsIgnoreCase("default")) {
+            return withConversation + "only summarize this Because we are going to another detailed response below";
+        }
+        return withConversation;
+    }
+
+    /**
+     * Prefixes the prompt with the session's conversation memory, if there is any.
+     */
+    public static String withConversation(String prompt, ContentGenerationRequest request) {
+        String conversation = request.getConversationContext();
+        if (conversation == null || conversation.isBlank()) {
+            return prompt;
+        }
+        return "Conversation so far:\n" + conversation + "\n\nCurrent request:\n" + prompt;
+    }
+
+    /**
+     * Platform-neutral base draft that multi-platform fan-out adapts per platform.
+     */
+    public static String canonicalDraftPrompt(ContentGenerationRequest request) {
+        StringBuilder prompt = new StringBuilder("Write a complete, platform-neutral draft of a social media post about: ")
+                .append(request.getPrompt());
+        if (request.getContext() != null && !request.getContext().isEmpty()) {
+            prompt.append("\n\nContext:\n").append(request.getContext());
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\n\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\n\nTone: ").append(request.getTone());
+        }
+        prompt.append("\n\nCover the key points in plain text without hashtags; it will be adapted to each platform afterwards.");
+        return withConversation(prompt.toString(), request);
+    }
+
+    /**
+     * First step of slide-by-slide generation: one short heading per slide (or tweet), one per line.
+     */
+    public static String outlinePrompt(ContentGenerationRequest request, int count, String unit) {
+        StringBuilder prompt = new StringBuilder("Plan a ").append(count).append("-").append(unit)
+                .append(" ").append(request.getContentType().getLabel().toLowerCase()).append(" about: ")
+                .append(request.getPrompt());
+        if (request.getContext() != null && !request.getContext().isEmpty()) {
+            prompt.append("\n\nContext:\n").append(request.getContext());
+        }
+        prompt.append("\n\nReturn ONLY ").append(count).append(" lines, one short heading per ").append(unit)
+                .append(", in order, without numbering or any other text.");
+        return withConversation(prompt.toString(), request);
+    }
+
+    /**
+     * Text of one slide (or tweet), written with the whole outline in view so the slides read as one piece.
+     */
+    public static String slidePrompt(ContentGenerationRequest request, List<String> outline, int index, String unit, int maxCharacters) {
+        StringBuilder prompt = new StringBuilder("We are writing a ").append(outline.size()).append("-").append(unit)
+                .append(" ").append(request.getContentType().getLabel().toLowerCase()).append(" about: ")
+                .append(request.getPrompt()).append("\n\nOutline:\n");
+        for (int i = 0; i < outline.size(); i++) {
+            prompt.append(i + 1).append(". ").append(outline.get(i)).append("\n");
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\nTone: ").append(request.getTone());
+        }
+        prompt.append("\n\nWrite ONLY ").append(unit).append(" ").append(index + 1).append(" (\"")
+                .append(outline.get(index)).append("\"), at most ").append(maxCharacters)
+                .append(" characters. Don't repeat the other ").append(unit).append("s and don't number it.");
+        return prompt.toString();
+    }
+
+    /**
+     * The stricter of the platform's limit and the limit requested by the client; 0 means unlimited.
+     */
+    public static int effectiveLimit(int platformLimit, int requestedLimit) {
+        if (platformLimit <= 0) {
+            return Math.max(requestedLimit, 0);
+        }
+        return requestedLimit > 0 ? Math.min(platformLimit, requestedLimit) : platformLimit;
+    }
+
+    public static String summaryPrompt(String existingSummary, String transcript, int maxWords) {
+        String base = existingSummary == null || existingSummary.isBlank()
+                ? "Summarize this conversation between a user and an assistant."
+                : "Here is the summary of a conversation so far:\n\n" + existingSummary
+                + "\n\nUpdate it with the following newer messages.";
+        return base + "\n\n" + transcript
+                + "\n\nKeep the user's goals, decisions, preferences and any facts the assistant should remember. "
+                + "Return ONLY the summary, at most " + maxWords + " words.";
+    }
+}
@@ -4,14 +4,22 @@ import com.back.postpilot.DTO.ChatMessageDTO;
 import com.back.postpilot.DTO.GenerateContentDTO;
 import com.back.postpilot.EnumTypeConstants.*;
 import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.domain.StructuredContent;
 import com.back.postpilot.domain.PlatformContentGenerator;
 import com.back.postpilot.entity.ChatMessage;
 import com.back.postpilot.entity.ChatSession;
 import com.back.postpilot.entity.ContentImage;
 import com.back.postpilot.entity.GeneratedContent;
-import com.back.postpilot.repository.ChatMessageRepository;
 import com.back.postpilot.repository.ChatSessionRepository;
-import com.back.postpilot.repository.GeneratedContentRepository;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import com.back.postpilot.service.generation.GenerationFailedException;
+import com.back.postpilot.service.generation.GenerationScope;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import com.back.postpilot.service.image.ImageIngestionService;
+import com.back.postpilot.service.llm.LLMTaskRouter;
+import com.back.postpilot.service.memory.ConversationMemory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.genai.Client;
 import com.google.genai.types.GenerateImagesConfig;
@@ -19,133 +27,517 @@ import com.google.genai.types.GenerateImagesResponse;
 import com.google.genai.types.GeneratedImage;
 import com.google.genai.types.Image;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@Transactional
 public class ChatService {
 
     private final ChatSessionRepository chatSessionRepository;
-    private final ChatMessageRepository chatMessageRepository;
-    private final GeneratedContentRepository generatedContentRepository;
+    private final ChatPersistenceService chatPersistenceService;
     private final PlatformContentGenerationServiceFactory platformContentGenerationServiceFactory;
-    private final LLMServiceFactory llmServiceFactory;
+    private final LLMTaskRouter llmTaskRouter;
     private final ImageOrchestrator imageOrchestrator;
+    private final SlideGenerationService slideGenerationService;
+    private final ImageIngestionService imageIngestionService;
+    private final GenerationTaskRunner generationTaskRunner;
+    private final ObjectProvider<Client> geminiClient;
+    private final ConversationMemory conversationMemory;
+    private final Duration generationTimeout;
     //private final PlatformContentGenerator platformContentGenerator;
 
     public ChatService(ChatSessionRepository chatSessionRepository,
-                       ChatMessageRepository chatMessageRepository,
                        PlatformContentGenerationServiceFactory platformContentGenerationServiceFactory,
-                       LLMServiceFactory llmServiceFactory,
-                       GeneratedContentRepository generatedContentRepository,
-                       ImageOrchestrator imageOrchestrator) {
+                       LLMTaskRouter llmTaskRouter,
+                       ChatPersistenceService chatPersistenceService,
+                       ImageOrchestrator imageOrchestrator,
+                       SlideGenerationService slideGenerationService,
+                       ImageIngestionService imageIngestionService,
+                       GenerationTaskRunner generationTaskRunner,
+                       ObjectProvider<Client> geminiClient,
+                       ConversationMemory conversationMemory,
+                       @Value("${chat.generation.timeout:PT2M}") Duration generationTimeout) {
         this.chatSessionRepository = chatSessionRepository;
-        this.chatMessageRepository = chatMessageRepository;
         this.platformContentGenerationServiceFactory = platformContentGenerationServiceFactory;
-        this.llmServiceFactory = llmServiceFactory;
-        this.generatedContentRepository = generatedContentRepository;
+        this.llmTaskRouter = llmTaskRouter;
+        this.chatPersistenceService = chatPersistenceService;
         this.imageOrchestrator = imageOrchestrator;
+        this.slideGenerationService = slideGenerationService;
+        this.imageIngestionService = imageIngestionService;
+        this.generationTaskRunner = generationTaskRunner;
+        this.geminiClient = geminiClient;
+        this.conversationMemory = conversationMemory;
+        this.generationTimeout = generationTimeout;
         //this.platformContentGenerator = platformContentGenerator;
     }
 
     public ChatMessageDTO getResponse(ContentGenerationRequest request) throws JsonProcessingException {
-        // 1️⃣ Find or create session
-        ChatSession session = chatSessionRepository.findBySessionId(request.getSessionId())
-                .orElseGet(() -> {
-                    ChatSession newSession = new ChatSession();
-                    newSession.setUserId(request.getUserId());
-                    newSession.setSessionId(UUID.randomUUID().toString());
-                    newSession.setStatus(ChatStatus.ACTIVE);
-                    newSession.setCreatedAt(LocalDateTime.now());
-                    return chatSessionRepository.save(newSession);
-                });
-
-        // 2️⃣ Save user message
-        ChatMessage userMessage = new ChatMessage();
-        userMessage.setContent(request.getPrompt());
-        userMessage.setMessageType(MessageType.USER);
-        userMessage.setChatSession(session);
-        userMessage.setTimestamp(LocalDateTime.now());
-        chatMessageRepository.save(userMessage);
-
-        // Map user message to DTO (optional, if needed for logging/response)
-        ChatMessageDTO userMessageDTO = new ChatMessageDTO.Builder()
-                .id(userMessage.getId())
-                .sessionId(session.getSessionId())
-                .sender("USER")
-                .content(userMessage.getContent())
-                .messageType(userMessage.getMessageType())
-                .timestamp(userMessage.getTimestamp())
-                .sequenceNumber(session.getMessages().size() + 1) // example sequence
-                .build();
+        Deadline deadline = resolveDeadline(request);
+        if (isFanOut(request)) {
+            return getFanOutResponse(request, deadline);
+        }
 
+        // 1️⃣ Find or create session and save user message (short transaction)
+        ChatSession session = chatPersistenceService.openTurn(request);
+        request.setConversationContext(conversationMemory.buildContext(session));
+
+        //get service of social media platform
+        ContentPlatForms platform = ContentPlatForms.valueOf(request.getPlatform().toUpperCase());
 
+        // 2️⃣ Pick an LLMService per task: titles and summaries can go to a cheaper model than the content
+        LLMService contentLlm = llmTaskRouter.forTask(LLMTask.CONTENT, request);
+        LLMService titleLlm = llmTaskRouter.forTask(LLMTask.TITLE, request);
+        LLMService replyLlm = platform == ContentPlatForms.DEFAULT ? contentLlm : llmTaskRouter.forTask(LLMTask.SUMMARY, request);
+        PlatformContentGenerationService platformContentGenerationService = platformContentGenerationServiceFactory.getPlatformService(platform);
 
-        // 3️⃣ Get LLMService from factory
-        LLMService llmService = llmServiceFactory.getService(AssitanceModels.fromString(request.getModel()));
+        boolean needsTitle = session.getTitle() == null || session.getTitle().isEmpty();
+        ChatMessage aiResponse;
+        GeneratedContent generatedContent;
+        SlideGenerationService.SlideDeck slideDeck = null;
 
-        // 4️⃣ Call LLM for AI response
-        ChatMessage aiResponse = llmService.generateChatMessage(request.getPrompt(), session, request);
+        // 3️⃣ Structured mode: one call for title, summary, content and hashtags; falls back to the standard path if unusable
+        Optional<StructuredContent> structured = request.getGenerationMode() == GenerationMode.STRUCTURED && platform != ContentPlatForms.DEFAULT
+                ? generateStructured(request, contentLlm, platformContentGenerationService)
+                : Optional.empty();
 
-        //get service of social media platform
+        if (structured.isPresent()) {
+            StructuredContent result = structured.get();
+            if (needsTitle) {
+                session.setTitle(result.title() != null && !result.title().isBlank() ? result.title() : fallbackTitle(request.getPrompt()));
+            }
+            session.setUpdatedAt(LocalDateTime.now());
+            aiResponse = newAssistantMessage(session, result.summary());
+            generatedContent = platformContentGenerationService.buildStructuredContent(request, result, aiResponse);
+        } else {
+            // Title, chat reply and platform content don't depend on each other, so run them concurrently under one deadline
+            String aiContent;
+            String platformRawResponse = null;
+            try (GenerationScope scope = generationTaskRunner.open(deadline.expiresAt())) {
+                Future<String> title = needsTitle
+                        ? scope.fork(() -> titleLlm.generateTitle(request.getPrompt(), request))
+                        : null;
+                Future<String> reply = scope.fork(() -> replyLlm.generateRawResponse(ChatPrompts.chatPrompt(request.getPrompt(), request), request));
+                // carousels and threads are generated slide by slide, everything else in one call
+                boolean slideBySlide = platform != ContentPlatForms.DEFAULT && SlideGenerationService.supports(request.getContentType());
+                Future<SlideGenerationService.SlideDeck> deck = slideBySlide
+                        ? scope.fork(() -> slideGenerationService.generate(request, platformContentGenerationService, contentLlm))
+                        : null;
+                Future<String> platformContent = platform != ContentPlatForms.DEFAULT && !slideBySlide
+                        ? scope.fork(() -> contentLlm.generateRawResponse(
+                                platformContentGenerationService.buildSystemPrompt(request),
+                                platformContentGenerationService.buildUserPrompt(request),
+                                request))
+                        : null;
+                scope.join();
+
+                if (title != null) {
+                    session.setTitle(title.resultNow());
+                }
+                aiContent = reply.resultNow();
+                if (platformContent != null) {
+                    platformRawResponse = platformContent.resultNow();
+                }
+                if (deck != null) {
+                    slideDeck = deck.resultNow();
+                    platformRawResponse = slideDeck.assemble();
+                }
+            }
+            session.setUpdatedAt(LocalDateTime.now());
+            aiResponse = newAssistantMessage(session, aiContent);
+
+            generatedContent = platformRawResponse != null
+                    ? platformContentGenerationService.buildContent(request, platformRawResponse, aiResponse)
+                    : null;
+        }
+
+
+        // 4️⃣ Images are provider calls too, so attach them before the persistence phase
+        if (generatedContent != null && slideDeck != null) {
+            // per-slide images were generated together with the slide texts
+            slideGenerationService.attachSlideImages(generatedContent, slideDeck);
+        } else if (generatedContent != null) {
+            checkStillWanted(request, "image generation");
+            attachImages(request, generatedContent);
+        }
+
+        // 5️⃣ Save AI message and content (short transaction); nothing is saved for a client that went away
+        checkStillWanted(request, "saving the assistant message");
+        GeneratedContent savedContent = chatPersistenceService.completeTurn(session, aiResponse, generatedContent);
+        storeImagesInBackground(Collections.singletonList(savedContent));
+        conversationMemory.updateSummaryAsync(session, llmTaskRouter.forTask(LLMTask.SUMMARY, request), request);
+
+        return toAssistantMessageDTO(request, session, aiResponse, savedContent);
+    }
+
+    /**
+     * Multi-platform fan-out: one platform-neutral draft (which is also the chat reply), then every target
+     * platform adapts that draft in parallel with its own system prompt and length limit. A platform whose
+     * adaptation fails is left out instead of failing the others; all versions are saved in one transaction.
+     */
+    private ChatMessageDTO getFanOutResponse(ContentGenerationRequest request, Deadline deadline) throws JsonProcessingException {
+        ChatSession session = chatPersistenceService.openTurn(request);
+        request.setConversationContext(conversationMemory.buildContext(session));
+
+        List<PlatformContentGenerationService> targets = request.getTargetPlatforms().stream()
+                .map(platform -> ContentPlatForms.valueOf(platform.toUpperCase()))
+                .filter(platform -> platform != ContentPlatForms.DEFAULT)
+                .distinct()
+                .map(platformContentGenerationServiceFactory::getPlatformService)
+                .toList();
+
+        LLMService contentLlm = llmTaskRouter.forTask(LLMTask.CONTENT, request);
+        LLMService titleLlm = llmTaskRouter.forTask(LLMTask.TITLE, request);
+        boolean needsTitle = session.getTitle() == null || session.getTitle().isEmpty();
+
+        // 1️⃣ Canonical draft, with the title alongside it
+        String draft;
+        try (GenerationScope scope = generationTaskRunner.open(deadline.expiresAt())) {
+            Future<String> title = needsTitle
+                    ? scope.fork(() -> titleLlm.generateTitle(request.getPrompt(), request))
+                    : null;
+            Future<String> baseDraft = scope.fork(() -> contentLlm.generateRawResponse(ChatPrompts.canonicalDraftPrompt(request), request));
+            scope.join();
+
+            if (title != null) {
+                session.setTitle(title.resultNow());
+            }
+            draft = baseDraft.resultNow();
+        }
+        session.setUpdatedAt(LocalDateTime.now());
+        ChatMessage aiResponse = newAssistantMessage(session, draft);
+
+        // 2️⃣ Per-platform adaptations of the draft, in parallel
+        checkStillWanted(request, "platform adaptation");
+        List<Future<GeneratedContent>> adaptations = new ArrayList<>();
+        try (GenerationScope scope = generationTaskRunner.open(deadline.expiresAt())) {
+            for (PlatformContentGenerationService target : targets) {
+                adaptations.add(scope.fork(() -> adaptDraft(request, target, contentLlm, draft, aiResponse)));
+            }
+            scope.join();
+        }
+        List<GeneratedContent> contents = adaptations.stream()
+                .map(Future::resultNow)
+                .filter(Objects::nonNull)
+                .toList();
+
+        // 3️⃣ Images for every version at once; identical image prompts share one provider call
+        checkStillWanted(request, "image generation");
+        if (!contents.isEmpty() && (request.getContentType() == ContentType.IMAGE || request.getContentType() == ContentType.CAROUSEL)) {
+            try (GenerationScope scope = generationTaskRunner.open(deadline.expiresAt())) {
+                contents.forEach(content -> scope.fork(() -> {
+                    attachImages(request, content);
+                    return null;
+                }));
+                scope.join();
+            }
+        }
+
+        // 4️⃣ Assistant message and all platform versions in one transaction
+        checkStillWanted(request, "saving the assistant message");
+        List<GeneratedContent> saved = chatPersistenceService.completeFanOutTurn(session, aiResponse, contents);
+        storeImagesInBackground(saved);
+        conversationMemory.updateSummaryAsync(session, llmTaskRouter.forTask(LLMTask.SUMMARY, request), request);
+
+        ChatMessageDTO response = toAssistantMessageDTO(request, session, aiResponse, saved.isEmpty() ? null : saved.get(0));
+        response.setPlatformContents(saved.stream().map(this::toGeneratedContentDTO).toList());
+        return response;
+    }
+
+    private GeneratedContent adaptDraft(ContentGenerationRequest request,
+                                        PlatformContentGenerationService target,
+                                        LLMService llmService,
+                                        String draft,
+                                        ChatMessage aiResponse) {
+        try {
+            String rawResponse = llmService.generateRawResponse(
+                    target.buildSystemPrompt(request),
+                    target.buildAdaptationPrompt(request, draft),
+                    request);
+            return target.buildContent(request, rawResponse, aiResponse);
+        } catch (DeadlineExceededException | GenerationCancelledException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.warn("Adapting the draft for {} failed, leaving it out: {}", target.getSupportedPlatform(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isFanOut(ContentGenerationRequest request) {
+        return request.getTargetPlatforms() != null && request.getTargetPlatforms().stream()
+                .anyMatch(platform -> !platform.equalsIgnoreCase(ContentPlatForms.DEFAULT.name()));
+    }
+
+    /**
+     * Streams the assistant response to the emitter as "delta" events while the provider generates it,
+     * then persists the assistant message and platform content and sends a final "complete" event
+     * carrying the same {@link ChatMessageDTO} that {@link #getResponse} returns.
+     */
+    public void streamResponse(ContentGenerationRequest request, SseEmitter emitter) {
+        Deadline deadline = resolveDeadline(request);
+        ChatSession session = chatPersistenceService.openTurn(request);
+        request.setConversationContext(conversationMemory.buildContext(session));
+
+        LLMService contentLlm = llmTaskRouter.forTask(LLMTask.CONTENT, request);
+        LLMService titleLlm = llmTaskRouter.forTask(LLMTask.TITLE, request);
         ContentPlatForms platform = ContentPlatForms.valueOf(request.getPlatform().toUpperCase());
         PlatformContentGenerationService platformContentGenerationService = platformContentGenerationServiceFactory.getPlatformService(platform);
-        GeneratedContent generatedContent = platformContentGenerationService.generateContent(request, llmService, session, aiResponse);
 
+        // the title call runs alongside the stream so it never delays the first token
+        Future<String> title = session.getTitle() == null || session.getTitle().isEmpty()
+                ? generationTaskRunner.submit(() -> titleLlm.generateTitle(request.getPrompt(), request))
+                : null;
+
+        StringBuffer streamed = new StringBuffer();
+        AtomicBoolean completed = new AtomicBoolean();
+        Disposable subscription = contentLlm.streamRawResponse(
+                        platformContentGenerationService.buildSystemPrompt(request),
+                        platformContentGenerationService.buildUserPrompt(request),
+                        request)
+                // one overall budget for the stream: every timeout window ends at the request deadline
+                .timeout(Mono.delay(deadline.remaining()), delta -> Mono.delay(deadline.remaining()))
+                .doOnNext(delta -> {
+                    streamed.append(delta);
+                    sendStreamEvent(emitter, "delta", Map.of("delta", delta));
+                })
+                .subscribe(
+                        null,
+                        error -> {
+                            if (error instanceof UncheckedIOException && request.getCancellation() != null) {
+                                // writing the delta failed: the client is gone
+                                request.getCancellation().cancel();
+                                return;
+                            }
+                            if (isCancelled(request)) {
+                                return;
+                            }
+                            log.error("Streaming generation failed for session {}", session.getSessionId(), error);
+                            emitter.completeWithError(error);
+                        },
+                        () -> {
+                            completed.set(true);
+                            try {
+                                ChatMessageDTO response = completeStreamedResponse(request, session, platformContentGenerationService, title, streamed.toString());
+                                conversationMemory.updateSummaryAsync(session, llmTaskRouter.forTask(LLMTask.SUMMARY, request), request);
+                                sendStreamEvent(emitter, "complete", response);
+                                emitter.complete();
+                            } catch (Exception ex) {
+                                log.error("Failed to persist streamed response for session {}", session.getSessionId(), ex);
+                                emitter.completeWithError(ex);
+                            }
+                        });
+
+        // Client gone: stop the provider stream and the title call, keep what was streamed so the user can resume
+        if (request.getCancellation() != null) {
+            request.getCancellation().onCancel(() -> {
+                subscription.dispose();
+                if (title != null) {
+                    title.cancel(true);
+                }
+                if (!completed.get()) {
+                    savePartialResponse(request, session, streamed.toString());
+                }
+            });
+        }
+    }
+
+    /**
+     * Keeps an interrupted stream's text as the assistant message. Conversation memory includes it in the next
+     * turn's context, so a follow-up like "continue" picks up where the stream stopped.
+     */
+    private void savePartialResponse(ContentGenerationRequest request, ChatSession session, String partial) {
+        if (partial.isBlank()) {
+            return;
+        }
+        try {
+            if (session.getTitle() == null || session.getTitle().isEmpty()) {
+                session.setTitle(fallbackTitle(request.getPrompt()));
+            }
+            session.setUpdatedAt(LocalDateTime.now());
+            ChatMessage aiMessage = newAssistantMessage(session, partial + "\n\n[Generation interrupted. Ask to continue to resume.]");
+            chatPersistenceService.completeTurn(session, aiMessage, null);
+            log.info("Saved interrupted stream for session {} as a resumable draft", session.getSessionId());
+        } catch (Exception ex) {
+            log.warn("Failed to save interrupted stream for session {}: {}", session.getSessionId(), ex.getMessage());
+        }
+    }
 
-        // save content first
-        GenerateContentDTO generatedContentDTO = null;
-        if(generatedContent!=null) {
-            GeneratedContent savedContent = generatedContentRepository.save(generatedContent);
+    private ChatMessageDTO completeStreamedResponse(ContentGenerationRequest request,
+                                                    ChatSession session,
+                                                    PlatformContentGenerationService platformContentGenerationService,
+                                                    Future<String> title,
+                                                    String content) throws JsonProcessingException {
+        if (title != null) {
+            session.setTitle(awaitTitle(title, request.getPrompt(), request.getDeadline()));
+        }
+        session.setUpdatedAt(LocalDateTime.now());
 
-            // image if required by content type
-            if (request.getContentType() == ContentType.IMAGE || request.getContentType() == ContentType.CAROUSEL) {
-                imageOrchestrator.generateAndPersistImages(request, savedContent);
-                savedContent = generatedContentRepository.save(savedContent);
+        ChatMessage aiMessage = newAssistantMessage(session, content);
+        GeneratedContent generatedContent = platformContentGenerationService.buildContent(request, content, aiMessage);
+        if (generatedContent != null) {
+            checkStillWanted(request, "image generation");
+            attachImages(request, generatedContent);
+        }
+        checkStillWanted(request, "saving the assistant message");
+        GeneratedContent savedContent = chatPersistenceService.completeTurn(session, aiMessage, generatedContent);
+        storeImagesInBackground(Collections.singletonList(savedContent));
+
+        return toAssistantMessageDTO(request, session, aiMessage, savedContent);
+    }
+
+    private Optional<StructuredContent> generateStructured(ContentGenerationRequest request,
+                                                           LLMService llmService,
+                                                           PlatformContentGenerationService platformContentGenerationService) {
+        try (GenerationScope scope = generationTaskRunner.open(request.getDeadline().expiresAt())) {
+            Future<Optional<StructuredContent>> structured = scope.fork(() -> platformContentGenerationService.generateStructuredContent(request, llmService));
+            scope.join();
+            return structured.resultNow();
+        } catch (DeadlineExceededException | GenerationCancelledException ex) {
+            throw ex;
+        } catch (GenerationFailedException ex) {
+            // the standard pipeline only makes sense if there is still a request to answer
+            if (ex.getCause() instanceof GenerationFailedException cause
+                    && (cause instanceof DeadlineExceededException || cause instanceof GenerationCancelledException)) {
+                throw cause;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new GenerationCancelledException("Interrupted during structured generation");
             }
+            log.warn("Structured generation failed, falling back to the standard pipeline: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String awaitTitle(Future<String> title, String prompt, Deadline deadline) {
+        try {
+            return title.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Title generation failed, falling back to the prompt: {}", e.getMessage());
+            title.cancel(true);
+        }
+        return fallbackTitle(prompt);
+    }
 
-            //add in chatMessageDTO
-             generatedContentDTO = GenerateContentDTO.builder()
-                    .id(savedContent.getId())
-                    .title(savedContent.getTitle())
-                     .platform(String.valueOf(savedContent.getPlatform()))
-                    .content(savedContent.getContent())
-                    .contentType(savedContent.getContentType())
-                    .imageUrls(savedContent.getImages())
-                    .hashtags(savedContent.getHashtags())
-                    .metadata(savedContent.getMetadata())
-                    .createdAt(savedContent.getCreatedAt())
-                    .status(savedContent.getStatus())
-                    .build();
+    /**
+     * Requests from the HTTP edge carry the client's deadline; anything else (e.g. background jobs)
+     * gets chat.generation.timeout from now.
+     */
+    private Deadline resolveDeadline(ContentGenerationRequest request) {
+        if (request.getDeadline() == null) {
+            request.setDeadline(Deadline.after(generationTimeout));
         }
+        return request.getDeadline();
+    }
 
+    private void checkStillWanted(ContentGenerationRequest request, String phase) {
+        request.getDeadline().check(phase);
+        if (request.getCancellation() != null) {
+            request.getCancellation().check(phase);
+        }
+    }
 
+    private boolean isCancelled(ContentGenerationRequest request) {
+        return request.getCancellation() != null && request.getCancellation().isCancelled();
+    }
 
+    private String fallbackTitle(String prompt) {
+        return prompt.length() > 50 ? prompt.substring(0, 47) + "..." : prompt;
+    }
 
-        // 5️⃣ Save AI message
-        chatMessageRepository.save(aiResponse);
+    private ChatMessage newAssistantMessage(ChatSession session, String content) {
+        ChatMessage aiMessage = new ChatMessage();
+        aiMessage.setContent(content);
+        aiMessage.setMessageType(MessageType.ASSISTANT);
+        aiMessage.setChatSession(session);
+        aiMessage.setTimestamp(LocalDateTime.now());
+        return aiMessage;
+    }
 
-        // 6️⃣ Map AI message to DTO and return
+    private void sendStreamEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
+    private void attachImages(ContentGenerationRequest request, GeneratedContent generatedContent) {
+        // image if required by content type
+        if (request.getContentType() == ContentType.IMAGE || request.getContentType() == ContentType.CAROUSEL) {
+            imageOrchestrator.generateAndPersistImages(request, generatedContent);
+        }
+    }
+
+    /**
+     * The response carries the provider URLs; copying the images into our store happens after it is sent.
+     */
+    private void storeImagesInBackground(List<GeneratedContent> savedContents) {
+        boolean hasImages = savedContents.stream()
+                .filter(Objects::nonNull)
+                .anyMatch(content -> content.getImages() != null && !content.getImages().isEmpty());
+        if (hasImages) {
+            imageIngestionService.wakeUp();
+        }
+    }
+
+    private ChatMessageDTO toAssistantMessageDTO(ContentGenerationRequest request,
+                                                 ChatSession session,
+                                                 ChatMessage aiMessage,
+                                                 GeneratedContent savedContent) {
         return new ChatMessageDTO.Builder()
-                .id(aiResponse.getId())
+                .id(aiMessage.getId())
                 .title(session.getTitle())
                 .sessionId(session.getSessionId())
                 .sender(MessageType.ASSISTANT.toString())
-                .content(aiResponse.getContent())
-                .messageType(aiResponse.getMessageType())
-                .timestamp(aiResponse.getTimestamp())
-                .sequenceNumber(session.getMessages().size() + 1)
+                .content(aiMessage.getContent())
+                .messageType(aiMessage.getMessageType())
+                .timestamp(aiMessage.getTimestamp())
+                .sequenceNumber(chatPersistenceService.countMessages(session))
                 .modelType(AssitanceModels.fromString(request.getModel()))
-                .generateContentDTO(generatedContentDTO)
+                .generateContentDTO(savedContent != null ? toGeneratedContentDTO(savedContent) : null)
+                .build();
+    }
+
+    private GenerateContentDTO toGeneratedContentDTO(GeneratedContent savedContent) {
+        return GenerateContentDTO.builder()
+                .id(savedContent.getId())
+                .title(savedContent.getTitle())
+                .platform(String.valueOf(savedContent.getPlatform()))
+                .content(savedContent.getContent())
+                .contentType(savedContent.getContentType())
+                .imageUrls(savedContent.getImages())
+                .hashtags(savedContent.getHashtags())
+                .metadata(savedContent.getMetadata())
+                .createdAt(savedContent.getCreatedAt())
+                .status(savedContent.getStatus())
                 .build();
     }
 
@@ -169,6 +561,7 @@ public class ChatService {
                 );
     }
 
+    @Transactional
     public ResponseEntity<?> updateTitle(String sessionId, String title) {
         Optional<ChatSession> chatSession = chatSessionRepository.findBySessionId(sessionId);
         if (chatSession.isEmpty()) {
@@ -185,7 +578,7 @@ public class ChatService {
     }
 
     public List<GeneratedImage> getImage(){
-        Client client = new Client();
+        Client client = geminiClient.getObject();
 
         GenerateImagesConfig config =
                 GenerateImagesConfig.builder()
@@ -20,4 +20,19 @@ public class DefaultContentGenerationService implements PlatformContentGeneratio
         return ContentPlatForms.DEFAULT;
     }
 
+    @Override
+    public String buildSystemPrompt(ContentGenerationRequest request) {
+        return "";
+    }
+
+    @Override
+    public String buildUserPrompt(ContentGenerationRequest request) {
+        return ChatPrompts.withConversation(request.getPrompt(), request);
+    }
+
+    @Override
+    public GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) {
+        return null;
+    }
+
 }
@@ -0,0 +1,108 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
+import com.back.postpilot.EnumTypeConstants.ContentStatus;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GeneratedContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service("facebookPlatformService")
+public class FacebookContentGenerationService implements PlatformContentGenerationService {
+
+    // Facebook's hard limit is 63,206; posts past the "See more" cut lose most readers, so stay far below it
+    private static final int MAX_CHARACTERS = 5000;
+
+    @Override
+    public GeneratedContent generateContent(ContentGenerationRequest request, LLMService llmService, ChatSession chatSession, ChatMessage chatMessage) throws JsonProcessingException {
+        String rawResponse = llmService.generateRawResponse(buildSystemPrompt(request), buildUserPrompt(request), request);
+        return buildContent(request, rawResponse, chatMessage);
+    }
+
+    @Override
+    public ContentPlatForms getSupportedPlatform() {
+        return ContentPlatForms.FACEBOOK;
+    }
+
+    @Override
+    public int getMaxCharacters() {
+        return MAX_CHARACTERS;
+    }
+
+    @Override
+    public String buildSystemPrompt(ContentGenerationRequest request) {
+        return switch (request.getContentType()) {
+            case ARTICLE, BLOG_POST -> """
+                You are a Facebook page editor writing long-form posts.
+                Create a post that:
+                - Opens with a strong first two lines, before the "See more" cut
+                - Uses short paragraphs and plain language
+                - Tells a story or gives a concrete example
+                - Ends with a question that invites comments
+                - Uses at most 3 hashtags on the last line
+                """;
+
+            default -> """
+                You are a Facebook page editor writing posts for a community.
+                Create a post that:
+                - Is friendly and conversational
+                - Gets to the point in the first two lines
+                - Ends with a question that invites comments
+                - Is usually between 40 and 500 characters
+                - Uses at most 3 hashtags on the last line
+                """;
+        };
+    }
+
+    @Override
+    public String buildUserPrompt(ContentGenerationRequest request) {
+        StringBuilder prompt = new StringBuilder("Create Facebook content about: ")
+                .append(request.getPrompt());
+
+        if (request.getContext() != null && !request.getContext().isEmpty()) {
+            prompt.append("\n\nContext:\n").append(request.getContext());
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\n\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\n\nTone: ").append(request.getTone());
+        }
+        return ChatPrompts.withConversation(prompt.toString(), request);
+    }
+
+    @Override
+    public GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) throws JsonProcessingException {
+        String hashtags = PlatformText.extractHashtags(rawResponse, 3);
+        String body = PlatformText.stripHashtags(rawResponse);
+        int limit = ChatPrompts.effectiveLimit(MAX_CHARACTERS, request.getMaxCharacters());
+
+        return GeneratedContent.builder()
+                .title("Facebook " + request.getContentType().getLabel() + " on: " + request.getPrompt())
+                .content(PlatformText.fitWithHashtags(body, hashtags, limit))
+                .hashtags(hashtags)
+                .contentType(request.getContentType())
+                .platform(ContentPlatForms.FACEBOOK)
+                .status(ContentStatus.DRAFT)
+                .createdAt(LocalDateTime.now())
+                .chatMessage(chatMessage)
+                .metadata(buildFacebookMetadata(limit))
+                .build();
+    }
+
+    private String buildFacebookMetadata(int limit) throws JsonProcessingException {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("platform_features", List.of("photos", "videos", "events", "polls"));
+        metadata.put("optimal_post_time", "Wednesday-Friday 9AM-1PM");
+        metadata.put("character_limit", limit);
+        return new ObjectMapper().writeValueAsString(metadata);
+    }
+}
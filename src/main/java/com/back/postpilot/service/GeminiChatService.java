@@ -1,68 +1,194 @@
 package com.back.postpilot.service;
 
-import com.back.postpilot.EnumTypeConstants.MessageType;
 import com.back.postpilot.domain.ContentGenerationRequest;
-import com.back.postpilot.entity.ChatMessage;
-import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import com.back.postpilot.service.generation.GenerationFailedException;
+import com.back.postpilot.service.llm.AdaptiveConcurrencyLimiter;
+import com.back.postpilot.service.llm.ConcurrencyLimiterRegistry;
+import com.back.postpilot.service.llm.LLMProviderException;
+import com.back.postpilot.service.llm.PromptCacheStats;
 import com.google.genai.Client;
+import com.google.genai.ResponseStream;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
 import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.Part;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service("geminiService")
 public class GeminiChatService implements LLMService {
 
+    private final ObjectProvider<Client> geminiClient;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final PromptCacheStats promptCacheStats;
+
+    public GeminiChatService(ObjectProvider<Client> geminiClient,
+                             ConcurrencyLimiterRegistry limiterRegistry,
+                             PromptCacheStats promptCacheStats) {
+        this.geminiClient = geminiClient;
+        this.limiter = limiterRegistry.forProvider("gemini");
+        this.promptCacheStats = promptCacheStats;
+    }
+
     @Override
-    public ChatMessage generateChatMessage(String prompt, ChatSession session, ContentGenerationRequest request) {
-        ChatMessage aiMessage = new ChatMessage();
-        if(session.getTitle()==null || session.getTitle().isEmpty()){
-            session.setTitle(chatResponse("Generate a short, descriptive title (max 50 characters) for this query:\n\n"
-                            + prompt +
-                            "\n\nReturn ONLY the title text, no explanation, no formatting."
-                    , request.getModel()));
-        }
-        if(!request.getPlatform().equalsIgnoreCase("default")){
-            prompt += "only summarize this Because we are going to another detailed response below";
-        }
-        String aiResponse = chatResponse(prompt, request.getModel());
-        session.setUpdatedAt(LocalDateTime.now());
-        aiMessage.setContent(aiResponse);
-        aiMessage.setMessageType(MessageType.ASSISTANT);
-        aiMessage.setChatSession(session);
-        aiMessage.setTimestamp(LocalDateTime.now());
-        return aiMessage;
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        return chatResponse(ChatPrompts.titlePrompt(prompt), request.getModel(), request.getDeadline());
     }
 
-    public String chatResponse(String prompt, String model) {
+    public String chatResponse(String prompt, String model, Deadline deadline) {
         try{
-            Client client = new Client();
             if (prompt == null || prompt.trim().isEmpty()) {
                 return "Prompt cannot be empty";
             }
-            return client.models.generateContent(model, prompt, null).text();
+            return generate(model, prompt, null, deadline);
+        } catch(GenerationFailedException ex){
+            // deadline and cancellation keep their own type so the controller maps them to 504 / no response
+            throw ex;
         } catch(Exception ex){
             log.debug(ex.getMessage());
-            return "bad Request";
+            throw new LLMProviderException("Gemini request failed", ex);
         }
     }
 
+    @Override
     public String generateRawResponse(String prompt, ContentGenerationRequest request){
         String model = request.getModel();
         try{
-            Client client = new Client();
             if (prompt == null || prompt.trim().isEmpty()) {
                 return "Prompt cannot be empty";
             }
-            return client.models.generateContent(model, prompt, null).text();
+            return generate(model, prompt, null, request.getDeadline());
+        } catch(GenerationFailedException ex){
+            // deadline and cancellation keep their own type so the controller maps them to 504 / no response
+            throw ex;
+        } catch(Exception ex){
+            log.debug(ex.getMessage());
+            throw new LLMProviderException("Gemini request failed", ex);
+        }
+    }
+
+    /**
+     * Sends the system prompt as Gemini's systemInstruction so the static prefix stays separate from,
+     * and ahead of, the per-request user prompt (eligible for Gemini's implicit context caching).
+     */
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return generateRawResponse(userPrompt, request);
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be empty");
+        }
+        try{
+            return generate(request.getModel(), userPrompt, systemInstruction(systemPrompt), request.getDeadline());
+        } catch(GenerationFailedException ex){
+            // deadline and cancellation keep their own type so the controller maps them to 504 / no response
+            throw ex;
         } catch(Exception ex){
             log.debug(ex.getMessage());
-            return "bad Request";
+            throw new LLMProviderException("Gemini request failed", ex);
         }
     }
 
+    private String generate(String model, String prompt, GenerateContentConfig config, Deadline deadline) {
+        // with a deadline, go through the async client so the call is abandoned once the budget runs out
+        GenerateContentResponse response = limiter.execute(deadline, () -> deadline == null
+                ? geminiClient.getObject().models.generateContent(model, prompt, config)
+                : awaitWithin(geminiClient.getObject().async.models.generateContent(model, prompt, config), deadline));
+        response.usageMetadata().ifPresent(usage -> promptCacheStats.record("gemini",
+                usage.promptTokenCount().orElse(0),
+                usage.cachedContentTokenCount().orElse(0)));
+        return response.text();
+    }
+
+    private GenerateContentResponse awaitWithin(CompletableFuture<GenerateContentResponse> call, Deadline deadline) {
+        try {
+            return call.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new DeadlineExceededException("Request deadline passed while waiting for Gemini");
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Interrupted while waiting for Gemini");
+        } catch (ExecutionException e) {
+            throw new LLMProviderException("Gemini request failed", e.getCause());
+        }
+    }
+
+    private static GenerateContentConfig systemInstruction(String systemPrompt) {
+        return GenerateContentConfig.builder()
+                .systemInstruction(Content.fromParts(Part.fromText(systemPrompt)))
+                .build();
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        return stream(prompt, null, request);
+    }
+
+    /**
+     * Streams with the system prompt as systemInstruction, like the blocking
+     * {@link #generateRawResponse(String, String, ContentGenerationRequest)}.
+     */
+    @Override
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return streamRawResponse(userPrompt, request);
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        return stream(userPrompt, systemInstruction(systemPrompt), request);
+    }
+
+    private Flux<String> stream(String prompt, GenerateContentConfig config, ContentGenerationRequest request) {
+        String model = request.getModel();
+        // The Gemini SDK exposes a blocking iterator, so drain it on an elastic worker and stop once the subscriber cancels
+        return Flux.<String>create(sink -> {
+            Client client = geminiClient.getObject();
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = limiter.acquire(request.getDeadline());
+            } catch (Exception ex) {
+                sink.error(ex);
+                return;
+            }
+            try (ResponseStream<GenerateContentResponse> stream = client.models.generateContentStream(model, prompt, config)) {
+                for (GenerateContentResponse chunk : stream) {
+                    if (sink.isCancelled()) {
+                        break;
+                    }
+                    String text = chunk.text();
+                    if (text != null && !text.isEmpty()) {
+                        sink.next(text);
+                    }
+                }
+                permit.success();
+                sink.complete();
+            } catch (Exception ex) {
+                log.debug("Gemini stream failed: {}", ex.getMessage());
+                permit.failure(ex);
+                sink.error(ex);
+            } finally {
+                permit.release();
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
 
 }
@@ -1,36 +1,42 @@
 package com.back.postpilot.service;
 
+import com.back.postpilot.EnumTypeConstants.ImageStorageStatus;
 import com.back.postpilot.domain.ContentGenerationRequest;
 import com.back.postpilot.entity.ContentImage;
 import com.back.postpilot.entity.GeneratedContent;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import com.back.postpilot.service.generation.SingleFlight;
 import com.back.postpilot.service.image.ImageGenerationRequest;
 import com.back.postpilot.service.image.ImageGenerationResult;
-import com.back.postpilot.service.image.ImageServiceFactory;
+import com.back.postpilot.service.image.ImageProviderRacer;
 import com.back.postpilot.service.image.LinkedInImagePostGenerationService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 @Service
 public class ImageOrchestrator {
 
-    private final ImageServiceFactory imageServiceFactory;
+    private final ImageProviderRacer imageProviderRacer;
     private final LinkedInImagePostGenerationService linkedInImagePostGenerationService;
+    private final SingleFlight singleFlight;
 
-    public ImageOrchestrator(ImageServiceFactory imageServiceFactory,
-                             LinkedInImagePostGenerationService linkedInImagePostGenerationService) {
-        this.imageServiceFactory = imageServiceFactory;
+    public ImageOrchestrator(ImageProviderRacer imageProviderRacer,
+                             LinkedInImagePostGenerationService linkedInImagePostGenerationService,
+                             SingleFlight singleFlight) {
+        this.imageProviderRacer = imageProviderRacer;
         this.linkedInImagePostGenerationService = linkedInImagePostGenerationService;
+        this.singleFlight = singleFlight;
     }
 
     public List<ContentImage> generateAndPersistImages(ContentGenerationRequest request,
                                                        GeneratedContent generatedContent) {
 
-        // Provider fallback order: Azure → A4F → Bytez
-        String providerKey = "azureopenai";
-
         String prompt;
         if (linkedInImagePostGenerationService.supports(generatedContent.getPlatform(), generatedContent.getContentType())) {
             prompt = linkedInImagePostGenerationService.buildImagePrompt(request);
@@ -38,6 +44,13 @@ public class ImageOrchestrator {
             prompt = request.getPrompt();
         }
 
+        return attachImages(generatedContent, generateImage(request, prompt), prompt, null);
+    }
+
+    /**
+     * Generates one image for the prompt, racing the image providers, without attaching it to any content.
+     */
+    public ImageGenerationResult generateImage(ContentGenerationRequest request, String prompt) {
         ImageGenerationRequest imageReq = ImageGenerationRequest.builder()
                 .prompt(prompt)
                 .model(request.getModel())
@@ -47,18 +60,36 @@ public class ImageOrchestrator {
                 .sessionId(request.getSessionId())
                 .width(1024)
                 .height(1024)
+                .deadline(request.getDeadline())
                 .build();
 
-        ImageGenerationResult result = imageServiceFactory.getService(providerKey).generate(imageReq);
-        if (result.getImages() == null || result.getImages().isEmpty()) {
-            providerKey = "a4f";
-            result = imageServiceFactory.getService(providerKey).generate(imageReq);
-            if (result.getImages() == null || result.getImages().isEmpty()) {
-                providerKey = "bytez";
-                result = imageServiceFactory.getService(providerKey).generate(imageReq);
-            }
+        // Identical prompts generated at the same time share one provider call
+        String flightKey = "image:" + imageReq.getModel() + ":" + imageReq.getWidth() + "x" + imageReq.getHeight()
+                + ":" + prompt;
+        try {
+            return singleFlight.execute(flightKey, request.getDeadline(), () -> {
+                ImageGenerationResult result = imageProviderRacer.generate(imageReq);
+                boolean empty = result.getImages() == null || result.getImages().isEmpty();
+                // an empty result because our own budget ran out must not be handed to requests that joined this call
+                if (empty && Thread.currentThread().isInterrupted()) {
+                    throw new GenerationCancelledException("Image generation interrupted");
+                }
+                if (empty && request.getDeadline() != null && request.getDeadline().isExpired()) {
+                    throw new DeadlineExceededException("Request deadline passed during image generation");
+                }
+                return result;
+            });
+        } catch (DeadlineExceededException | GenerationCancelledException ex) {
+            // same outcome as before for this request: no image
+            return ImageGenerationResult.builder().images(List.of()).build();
         }
+    }
 
+    /**
+     * Adds the result's images to the content (saved with it by cascade). slideIndex orders carousel images.
+     */
+    public List<ContentImage> attachImages(GeneratedContent generatedContent, ImageGenerationResult result,
+                                           String prompt, Integer slideIndex) {
         List<ContentImage> saved = new ArrayList<>();
         if (result != null && result.getImages() != null) {
             // Ensure images list on GeneratedContent is mutable and initialized
@@ -80,11 +111,18 @@ public class ImageOrchestrator {
                 ci.setImageUrl(url);
                 ci.setImagePrompt(prompt);
                 // Hardcode filename for now as requested
-                ci.setFileName("generated_image.png");
+                ci.setFileName(slideIndex != null ? "slide_" + (slideIndex + 1) + ".png" : "generated_image.png");
                 String alt = generatedContent.getTitle();
                 if (alt == null || alt.isBlank()) alt = prompt;
                 ci.setAltText(alt);
                 ci.setFileSize(null);
+                ci.setMimeType(item.getMimeType());
+                ci.setWidth(item.getWidth());
+                ci.setHeight(item.getHeight());
+                // provider URLs expire; ImageIngestionService copies the image into our store after the turn is saved
+                ci.setStorageStatus(ImageStorageStatus.PENDING);
+                ci.setStorageAttempts(0);
+                ci.setSlideIndex(slideIndex);
                 ci.setGeneratedAt(LocalDateTime.now());
                 imagesList.add(ci);
                 saved.add(ci);
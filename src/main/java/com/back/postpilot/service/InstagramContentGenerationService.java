@@ -0,0 +1,116 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
+import com.back.postpilot.EnumTypeConstants.ContentStatus;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GeneratedContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service("instagramPlatformService")
+public class InstagramContentGenerationService implements PlatformContentGenerationService {
+
+    private static final int MAX_CHARACTERS = 2200;
+
+    @Override
+    public GeneratedContent generateContent(ContentGenerationRequest request, LLMService llmService, ChatSession chatSession, ChatMessage chatMessage) throws JsonProcessingException {
+        String rawResponse = llmService.generateRawResponse(buildSystemPrompt(request), buildUserPrompt(request), request);
+        return buildContent(request, rawResponse, chatMessage);
+    }
+
+    @Override
+    public ContentPlatForms getSupportedPlatform() {
+        return ContentPlatForms.INSTAGRAM;
+    }
+
+    @Override
+    public int getMaxCharacters() {
+        return MAX_CHARACTERS;
+    }
+
+    @Override
+    public String buildSystemPrompt(ContentGenerationRequest request) {
+        return switch (request.getContentType()) {
+            case CAROUSEL -> """
+                You are an Instagram creator writing carousel captions.
+                Create a caption that:
+                - Hooks the reader in the first line, before the "more" cut
+                - Teases what each slide covers
+                - Ends with a call to save or share the post
+                - Stays under 2200 characters including hashtags
+                - Puts up to 10 relevant hashtags on the last line
+                """;
+
+            case STORY -> """
+                You are an Instagram creator writing story text.
+                Create story text that:
+                - Is a few short lines readable at a glance
+                - Uses a direct, casual voice
+                - Ends with one clear action (poll, link, reply)
+                """;
+
+            default -> """
+                You are an Instagram creator writing post captions.
+                Create a caption that:
+                - Hooks the reader in the first line, before the "more" cut
+                - Uses short paragraphs and a few fitting emojis
+                - Ends with a question or call to action
+                - Stays under 2200 characters including hashtags
+                - Puts up to 10 relevant hashtags on the last line
+                """;
+        };
+    }
+
+    @Override
+    public String buildUserPrompt(ContentGenerationRequest request) {
+        StringBuilder prompt = new StringBuilder("Create Instagram content about: ")
+                .append(request.getPrompt());
+
+        if (request.getContext() != null && !request.getContext().isEmpty()) {
+            prompt.append("\n\nContext:\n").append(request.getContext());
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\n\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\n\nTone: ").append(request.getTone());
+        }
+        return ChatPrompts.withConversation(prompt.toString(), request);
+    }
+
+    @Override
+    public GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) throws JsonProcessingException {
+        String hashtags = PlatformText.extractHashtags(rawResponse, 10);
+        String body = PlatformText.stripHashtags(rawResponse);
+        int limit = ChatPrompts.effectiveLimit(MAX_CHARACTERS, request.getMaxCharacters());
+
+        return GeneratedContent.builder()
+                .title("Instagram " + request.getContentType().getLabel() + " on: " + request.getPrompt())
+                .content(PlatformText.fitWithHashtags(body, hashtags, limit))
+                .hashtags(hashtags)
+                .contentType(request.getContentType())
+                .platform(ContentPlatForms.INSTAGRAM)
+                .status(ContentStatus.DRAFT)
+                .createdAt(LocalDateTime.now())
+                .chatMessage(chatMessage)
+                .metadata(buildInstagramMetadata(limit))
+                .build();
+    }
+
+    private String buildInstagramMetadata(int limit) throws JsonProcessingException {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("platform_features", List.of("carousels", "reels", "stories"));
+        metadata.put("optimal_post_time", "Monday-Friday 11AM-1PM");
+        metadata.put("character_limit", limit);
+        metadata.put("max_hashtags", 30);
+        return new ObjectMapper().writeValueAsString(metadata);
+    }
+}
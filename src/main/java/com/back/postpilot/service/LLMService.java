@@ -1,10 +1,51 @@
 package com.back.postpilot.service;
 
+import com.back.postpilot.EnumTypeConstants.MessageType;
 import com.back.postpilot.domain.ContentGenerationRequest;
 import com.back.postpilot.entity.ChatMessage;
 import com.back.postpilot.entity.ChatSession;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
 
 public interface LLMService {
-    ChatMessage generateChatMessage(String prompt, ChatSession session, ContentGenerationRequest request);
     String generateRawResponse(String prompt, ContentGenerationRequest request);
+
+    /**
+     * Same as {@link #generateRawResponse(String, ContentGenerationRequest)} with the static system prompt
+     * kept apart from the per-request user prompt.
+     */
+    default String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        return generateRawResponse(systemPrompt + "\n\n" + userPrompt, request);
+    }
+
+    String generateTitle(String prompt, ContentGenerationRequest request);
+
+    /**
+     * Streams the response for the given prompt as text deltas, in the order the provider emits them.
+     * Cancelling the subscription stops the upstream provider call.
+     */
+    Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request);
+
+    /**
+     * Same as {@link #streamRawResponse(String, ContentGenerationRequest)} with the static system prompt
+     * kept apart from the per-request user prompt.
+     */
+    default Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        return streamRawResponse(systemPrompt + "\n\n" + userPrompt, request);
+    }
+
+    default ChatMessage generateChatMessage(String prompt, ChatSession session, ContentGenerationRequest request) {
+        ChatMessage aiMessage = new ChatMessage();
+        if (session.getTitle() == null || session.getTitle().isEmpty()) {
+            session.setTitle(generateTitle(prompt, request));
+        }
+        String aiResponse = generateRawResponse(ChatPrompts.chatPrompt(prompt, request), request);
+        session.setUpdatedAt(LocalDateTime.now());
+        aiMessage.setContent(aiResponse);
+        aiMessage.setMessageType(MessageType.ASSISTANT);
+        aiMessage.setChatSession(session);
+        aiMessage.setTimestamp(LocalDateTime.now());
+        return aiMessage;
+    }
 }
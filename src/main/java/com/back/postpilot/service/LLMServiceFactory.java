@@ -1,6 +1,12 @@
 package com.back.postpilot.service;
 
 
+import com.back.postpilot.service.generation.SingleFlight;
+import com.back.postpilot.service.llm.CachingLLMService;
+import com.back.postpilot.service.llm.CoalescingLLMService;
+import com.back.postpilot.service.llm.LLMResponseCache;
+import com.back.postpilot.service.llm.SemanticCachingLLMService;
+import com.back.postpilot.service.llm.SemanticResponseCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -13,12 +19,27 @@ public class LLMServiceFactory {
     @Autowired
     private ApplicationContext context;
 
+    @Autowired
+    private LLMResponseCache responseCache;
+
+    @Autowired
+    private SemanticResponseCache semanticResponseCache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     public LLMService getService(AssitanceModels model) {
-        return switch (model) {
+        LLMService service = switch (model) {
             case CHATGPT -> context.getBean("chatgptService", LLMService.class);
             case GEMINI -> context.getBean("geminiService", LLMService.class);
             case CLAUDE -> context.getBean("claudeService", LLMService.class);
             case OLLAMA -> context.getBean("ollamaService", LLMService.class);
         };
+        // the decorators key on the model that runs, which for a routed task isn't the one on the request
+        if (semanticResponseCache.isEnabled()) {
+            service = new SemanticCachingLLMService(service, model, semanticResponseCache);
+        }
+        service = new CoalescingLLMService(service, model, responseCache, singleFlight);
+        return responseCache.isEnabled() ? new CachingLLMService(service, model, responseCache) : service;
     }
 }
@@ -4,11 +4,14 @@ import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
 import com.back.postpilot.EnumTypeConstants.ContentStatus;
 import com.back.postpilot.EnumTypeConstants.ContentType;
 import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.domain.StructuredContent;
 import com.back.postpilot.entity.ChatMessage;
 import com.back.postpilot.entity.ChatSession;
 import com.back.postpilot.entity.GeneratedContent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,21 +19,68 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 
+@Slf4j
 @Service("linkedinPlatformService")
 public class LinkedInContentGenerationService implements PlatformContentGenerationService {
 
+    private final BeanOutputConverter<StructuredContent> structuredContentConverter = new BeanOutputConverter<>(StructuredContent.class);
+
     @Override
     public GeneratedContent generateContent(ContentGenerationRequest request, LLMService llmService, ChatSession chatSession, ChatMessage chatMessage) throws JsonProcessingException {
+        String rawResponse = llmService.generateRawResponse(buildSystemPrompt(request), buildUserPrompt(request), request);
+        return buildContent(request, rawResponse, chatMessage);
+    }
 
-        String systemPrompt = buildSystemPrompt(request.getContentType());
-        String userPrompt = buildUserPrompt(request);
+    @Override
+    public String buildSystemPrompt(ContentGenerationRequest request) {
+        return buildSystemPrompt(request.getContentType());
+    }
 
+    @Override
+    public GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) throws JsonProcessingException {
+        String optimizedContent = optimizeForLinkedIn(rawResponse, request.getContentType());
+        String hashtags = generateLinkedInHashtags(request.getPrompt(), optimizedContent);
+        return assembleContent(request, optimizedContent, hashtags, chatMessage);
+    }
 
-        String rawResponse = llmService.generateRawResponse(systemPrompt + "\n\n" + userPrompt, request);
+    @Override
+    public Optional<StructuredContent> generateStructuredContent(ContentGenerationRequest request, LLMService llmService) {
+        // the format instructions never change, so they extend the static (cacheable) system prefix
+        String systemPrompt = buildSystemPrompt(request) + "\n" + structuredContentConverter.getFormat();
+        String userPrompt = buildUserPrompt(request) + """
 
 
-        String optimizedContent = optimizeForLinkedIn(rawResponse, request.getContentType());
-        String hashtags = generateLinkedInHashtags(request.getPrompt(), optimizedContent);
+                Also write a short title (max 50 characters) and a 2-3 sentence summary of the content,
+                and suggest up to 5 relevant hashtags without the leading '#'.
+                """;
+
+        String rawResponse = llmService.generateRawResponse(systemPrompt, userPrompt, request);
+        try {
+            StructuredContent structured = structuredContentConverter.convert(rawResponse);
+            if (structured == null || isBlank(structured.content()) || isBlank(structured.summary())) {
+                log.warn("Structured LinkedIn response is missing content or summary, falling back to the standard pipeline");
+                return Optional.empty();
+            }
+            return Optional.of(structured);
+        } catch (RuntimeException ex) {
+            log.warn("Structured LinkedIn response could not be parsed, falling back to the standard pipeline: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public GeneratedContent buildStructuredContent(ContentGenerationRequest request, StructuredContent structuredContent, ChatMessage chatMessage) throws JsonProcessingException {
+        String optimizedContent = optimizeForLinkedIn(structuredContent.content(), request.getContentType());
+        String hashtags = structuredContent.hashtags() == null || structuredContent.hashtags().isEmpty()
+                ? generateLinkedInHashtags(request.getPrompt(), optimizedContent)
+                : structuredContent.hashtags().stream()
+                        .limit(5)
+                        .map(tag -> "#" + tag.replace("#", "").replaceAll("\\s+", ""))
+                        .collect(Collectors.joining(" "));
+        return assembleContent(request, optimizedContent, hashtags, chatMessage);
+    }
+
+    private GeneratedContent assembleContent(ContentGenerationRequest request, String optimizedContent, String hashtags, ChatMessage chatMessage) throws JsonProcessingException {
         String metadata = buildLinkedInMetadata(request);
 
         // 4️⃣ Build GeneratedContent entity
@@ -52,6 +102,11 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
         return ContentPlatForms.LINKEDIN;
     }
 
+    @Override
+    public int getMaxCharacters() {
+        return 3000;
+    }
+
     private String buildSystemPrompt(ContentType contentType) {
         return switch (contentType) {
             case POST -> """
@@ -88,7 +143,8 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
         };
     }
 
-    private String buildUserPrompt(ContentGenerationRequest request) {
+    @Override
+    public String buildUserPrompt(ContentGenerationRequest request) {
         StringBuilder prompt = new StringBuilder("Create LinkedIn content about: ")
                 .append(request.getPrompt());
 
@@ -101,6 +157,9 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
         if (request.getTone() != null) {
             prompt.append("\n\nTone: ").append(request.getTone());
         }
+        if (request.getConversationContext() != null && !request.getConversationContext().isBlank()) {
+            prompt.append("\n\nConversation so far:\n").append(request.getConversationContext());
+        }
 
         return prompt.toString();
     }
@@ -108,7 +167,7 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
     private String optimizeForLinkedIn(String content, ContentType contentType) {
         content = addLinkedInFormatting(content);
         content = optimizeHashtagPlacement(content);
-        content = ensureCharacterLimit(content, 3000);
+        content = ensureCharacterLimit(content, getMaxCharacters());
         content = addCallToAction(content, contentType);
         return content;
     }
@@ -140,6 +199,10 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
                 .collect(Collectors.joining(" "));
     }
 
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     private List<String> extractKeywords(String text) {
         // Dummy keyword extraction for now
         return Arrays.asList("AI", "LinkedIn", "Innovation", "Tech", "Growth");
@@ -150,7 +213,7 @@ public class LinkedInContentGenerationService implements PlatformContentGenerati
         metadata.put("platform_features", List.of("polls", "documents", "videos"));
         metadata.put("optimal_post_time", "Tuesday-Thursday 8AM-10AM");
         metadata.put("engagement_tactics", List.of("ask_questions", "share_insights", "use_storytelling"));
-        metadata.put("character_limit", 3000);
+        metadata.put("character_limit", getMaxCharacters());
         ObjectMapper mapper = new ObjectMapper();
         return mapper.writeValueAsString(metadata);
     }
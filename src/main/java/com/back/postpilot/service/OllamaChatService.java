@@ -0,0 +1,99 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.llm.ConcurrencyLimitAdvisor;
+import com.back.postpilot.service.llm.ThinkBlocks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Local Ollama model (spring.ai.ollama.chat.options.model). Cheap enough for titles and summaries.
+ * qwen3 and other reasoning models prefix their answer with a {@code <think>} block, which is removed from
+ * both blocking and streamed replies.
+ */
+@Slf4j
+@Service("ollamaService")
+public class OllamaChatService implements LLMService {
+
+    private final ChatClient ollamaChatClient;
+
+    public OllamaChatService(@Qualifier("OllamaChatClient") ChatClient ollamaChatClient) {
+        this.ollamaChatClient = ollamaChatClient;
+    }
+
+    @Override
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        return chatResponse(ChatPrompts.titlePrompt(prompt), request.getDeadline());
+    }
+
+    @Override
+    public String generateRawResponse(String prompt, ContentGenerationRequest request) {
+        return chatResponse(prompt, request.getDeadline());
+    }
+
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return chatResponse(userPrompt, request.getDeadline());
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be empty");
+        }
+        String response = ollamaChatClient
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .system(systemPrompt)
+                .user(userPrompt)
+                .call()
+                .content();
+        return ThinkBlocks.strip(response);
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        return ThinkBlocks.strip(ollamaChatClient
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .user(prompt)
+                .stream()
+                .content());
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (systemPrompt == null || systemPrompt.isBlank()) {
+            return streamRawResponse(userPrompt, request);
+        }
+        if (userPrompt == null || userPrompt.trim().isEmpty()) {
+            return Flux.error(new IllegalArgumentException("Prompt cannot be empty"));
+        }
+        return ThinkBlocks.strip(ollamaChatClient
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(request.getDeadline()))
+                .system(systemPrompt)
+                .user(userPrompt)
+                .stream()
+                .content());
+    }
+
+    private String chatResponse(String prompt, Deadline deadline) {
+        if (prompt == null || prompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prompt cannot be empty");
+        }
+        log.debug("Calling Ollama with prompt: {}", prompt);
+        String response = ollamaChatClient
+                .prompt()
+                .advisors(ConcurrencyLimitAdvisor.deadline(deadline))
+                .user(prompt)
+                .call()
+                .content();
+        return ThinkBlocks.strip(response);
+    }
+}
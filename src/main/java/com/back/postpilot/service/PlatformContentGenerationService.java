@@ -2,14 +2,74 @@ package com.back.postpilot.service;
 
 import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
 import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.domain.StructuredContent;
 import com.back.postpilot.entity.ChatMessage;
 import com.back.postpilot.entity.ChatSession;
 import com.back.postpilot.entity.GeneratedContent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public interface PlatformContentGenerationService {
     GeneratedContent generateContent(ContentGenerationRequest request, LLMService llmService, ChatSession chatSession, ChatMessage chatMessage) throws JsonProcessingException;
     ContentPlatForms getSupportedPlatform();
+
+    /**
+     * Static, per content-type instructions for this platform.
+     */
+    String buildSystemPrompt(ContentGenerationRequest request);
+
+    /**
+     * Per-request part of the prompt (topic, context, audience, tone).
+     */
+    String buildUserPrompt(ContentGenerationRequest request);
+
+    /**
+     * Post-processes an already generated model response into the platform's content entity.
+     * Returns null when the platform does not produce separate content.
+     */
+    GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) throws JsonProcessingException;
+
+    /**
+     * Asks the model for title, summary, content and hashtags in one JSON response.
+     * Returns empty when the platform has no structured prompt or the response can't be parsed,
+     * in which case callers fall back to the standard multi-call pipeline.
+     */
+    default Optional<StructuredContent> generateStructuredContent(ContentGenerationRequest request, LLMService llmService) {
+        return Optional.empty();
+    }
+
+    default GeneratedContent buildStructuredContent(ContentGenerationRequest request, StructuredContent structuredContent, ChatMessage chatMessage) throws JsonProcessingException {
+        return null;
+    }
+
+    /**
+     * Hard character limit of a post on this platform, hashtags included. 0 means no limit.
+     */
+    default int getMaxCharacters() {
+        return 0;
+    }
+
+    /**
+     * User prompt that rewrites an already generated, platform-neutral draft for this platform
+     * instead of writing from scratch. Used by multi-platform fan-out together with {@link #buildSystemPrompt}.
+     */
+    default String buildAdaptationPrompt(ContentGenerationRequest request, String draft) {
+        StringBuilder prompt = new StringBuilder("Adapt the following draft into ")
+                .append(getSupportedPlatform().getPlatform())
+                .append(" content. Keep its facts and message, but rewrite it for this platform's audience and format.");
+        int limit = ChatPrompts.effectiveLimit(getMaxCharacters(), request.getMaxCharacters());
+        if (limit > 0) {
+            prompt.append(" The whole post, hashtags included, must stay under ").append(limit).append(" characters.");
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\n\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\n\nTone: ").append(request.getTone());
+        }
+        return prompt.append("\n\nDraft:\n").append(draft).toString();
+    }
 }
@@ -0,0 +1,60 @@
+package com.back.postpilot.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Text helpers shared by the platform services that take hashtags from the model's own output
+ * and have to fit the post into the platform's character limit.
+ */
+final class PlatformText {
+
+    private static final Pattern HASHTAG = Pattern.compile("#[\\p{L}\\p{N}_]+");
+
+    private PlatformText() {
+    }
+
+    static String extractHashtags(String text, int max) {
+        Set<String> tags = new LinkedHashSet<>();
+        Matcher matcher = HASHTAG.matcher(text);
+        while (matcher.find() && tags.size() < max) {
+            tags.add(matcher.group());
+        }
+        return String.join(" ", tags);
+    }
+
+    static String stripHashtags(String text) {
+        // only lines made of hashtags are removed; tags used inside a sentence stay part of it
+        return text.lines()
+                .filter(line -> line.isBlank() || !HASHTAG.matcher(line).replaceAll("").isBlank())
+                .collect(Collectors.joining("\n"))
+                .strip();
+    }
+
+    static String joinWithHashtags(String body, String hashtags) {
+        return hashtags.isEmpty() ? body : body + "\n\n" + hashtags;
+    }
+
+    /**
+     * Joins body and hashtags, shortening the body (never the hashtags) so the result stays within limit.
+     * A limit of 0 or less means no limit.
+     */
+    static String fitWithHashtags(String body, String hashtags, int limit) {
+        String joined = joinWithHashtags(body, hashtags);
+        if (limit <= 0 || joined.length() <= limit) {
+            return joined;
+        }
+        int suffix = hashtags.isEmpty() ? 0 : hashtags.length() + 2;
+        if (suffix >= limit) {
+            return truncate(body, limit);
+        }
+        return joinWithHashtags(truncate(body, limit - suffix), hashtags);
+    }
+
+    static String truncate(String text, int max) {
+        return text.length() > max ? text.substring(0, Math.max(max - 3, 0)).stripTrailing() + "..." : text;
+    }
+}
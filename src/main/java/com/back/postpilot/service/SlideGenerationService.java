@@ -0,0 +1,179 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.GeneratedContent;
+import com.back.postpilot.service.generation.GenerationFailedException;
+import com.back.postpilot.service.generation.GenerationScope;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import com.back.postpilot.service.image.ImageGenerationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Slide-by-slide generation for CAROUSEL and THREAD content. One call produces the outline; then every
+ * slide's text (and, for carousels, its image) is generated concurrently, at most chat.slides.parallelism
+ * provider calls at a time, and the slides are assembled in outline order. A deck takes about as long as
+ * its slowest slide instead of the sum of all of them.
+ */
+@Slf4j
+@Service
+public class SlideGenerationService {
+
+    private final GenerationTaskRunner generationTaskRunner;
+    private final ImageOrchestrator imageOrchestrator;
+    private final int defaultSlides;
+    private final int maxSlides;
+    private final int parallelism;
+    private final int maxSlideCharacters;
+    private final boolean slideImages;
+
+    public SlideGenerationService(GenerationTaskRunner generationTaskRunner,
+                                  ImageOrchestrator imageOrchestrator,
+                                  @Value("${chat.slides.default-count:6}") int defaultSlides,
+                                  @Value("${chat.slides.max-count:10}") int maxSlides,
+                                  @Value("${chat.slides.parallelism:4}") int parallelism,
+                                  @Value("${chat.slides.max-characters:300}") int maxSlideCharacters,
+                                  @Value("${chat.slides.images:true}") boolean slideImages) {
+        this.generationTaskRunner = generationTaskRunner;
+        this.imageOrchestrator = imageOrchestrator;
+        this.defaultSlides = defaultSlides;
+        this.maxSlides = maxSlides;
+        this.parallelism = parallelism;
+        this.maxSlideCharacters = maxSlideCharacters;
+        this.slideImages = slideImages;
+    }
+
+    public static boolean supports(ContentType contentType) {
+        return contentType == ContentType.CAROUSEL || contentType == ContentType.THREAD;
+    }
+
+    public record Slide(int index, String heading, String text, String imagePrompt, ImageGenerationResult image) {
+    }
+
+    public record SlideDeck(ContentType contentType, List<Slide> slides) {
+
+        /**
+         * Slide texts in order, as the raw response the platform service post-processes.
+         */
+        public String assemble() {
+            StringBuilder text = new StringBuilder();
+            for (Slide slide : slides) {
+                if (!text.isEmpty()) {
+                    text.append("\n\n");
+                }
+                if (contentType == ContentType.THREAD) {
+                    text.append(slide.text()).append(" ").append(slide.index() + 1).append("/").append(slides.size());
+                } else {
+                    text.append("Slide ").append(slide.index() + 1).append(": ").append(slide.heading())
+                            .append("\n").append(slide.text());
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    public SlideDeck generate(ContentGenerationRequest request,
+                              PlatformContentGenerationService platformService,
+                              LLMService llmService) {
+        String unit = request.getContentType() == ContentType.THREAD ? "tweet" : "slide";
+        int characters = request.getContentType() == ContentType.THREAD ? 270 : maxSlideCharacters;
+        String systemPrompt = platformService.buildSystemPrompt(request);
+        int count = slideCount(request);
+
+        List<String> outline = parseOutline(
+                llmService.generateRawResponse(systemPrompt, ChatPrompts.outlinePrompt(request, count, unit), request), count);
+        if (outline.isEmpty()) {
+            throw new GenerationFailedException("The model returned an empty " + unit + " outline");
+        }
+        boolean withImages = slideImages && request.getContentType() == ContentType.CAROUSEL;
+
+        // texts and images are independent of each other, so every provider call of the deck runs at once (bounded)
+        Semaphore slots = new Semaphore(parallelism);
+        List<Future<String>> texts = new ArrayList<>();
+        List<Future<ImageGenerationResult>> images = new ArrayList<>();
+        List<String> imagePrompts = new ArrayList<>();
+        try (GenerationScope scope = generationTaskRunner.open(request.getDeadline().expiresAt())) {
+            for (int i = 0; i < outline.size(); i++) {
+                String userPrompt = ChatPrompts.slidePrompt(request, outline, i, unit, characters);
+                texts.add(scope.fork(bounded(slots, () -> llmService.generateRawResponse(systemPrompt, userPrompt, request).strip())));
+                if (withImages) {
+                    String imagePrompt = slideImagePrompt(request, outline.get(i), i, outline.size());
+                    imagePrompts.add(imagePrompt);
+                    images.add(scope.fork(bounded(slots, () -> imageOrchestrator.generateImage(request, imagePrompt))));
+                }
+            }
+            scope.join();
+        }
+
+        List<Slide> slides = new ArrayList<>();
+        for (int i = 0; i < outline.size(); i++) {
+            slides.add(new Slide(i, outline.get(i), texts.get(i).resultNow(),
+                    withImages ? imagePrompts.get(i) : null,
+                    withImages ? images.get(i).resultNow() : null));
+        }
+        log.debug("Generated {} {}s for '{}'", slides.size(), unit, request.getPrompt());
+        return new SlideDeck(request.getContentType(), slides);
+    }
+
+    /**
+     * Attaches each slide's image to the content, tagged with its slide position.
+     */
+    public void attachSlideImages(GeneratedContent content, SlideDeck deck) {
+        for (Slide slide : deck.slides()) {
+            if (slide.image() != null) {
+                imageOrchestrator.attachImages(content, slide.image(), slide.imagePrompt(), slide.index());
+            }
+        }
+    }
+
+    private <T> Callable<T> bounded(Semaphore slots, Callable<T> call) {
+        return () -> {
+            slots.acquire();
+            try {
+                return call.call();
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    private int slideCount(ContentGenerationRequest request) {
+        Object requested = request.getAdditionalParameters() != null ? request.getAdditionalParameters().get("slides") : null;
+        int count = defaultSlides;
+        if (requested instanceof Number number) {
+            count = number.intValue();
+        } else if (requested instanceof String text && text.matches("\\d+")) {
+            count = Integer.parseInt(text);
+        }
+        return Math.max(2, Math.min(maxSlides, count));
+    }
+
+    private List<String> parseOutline(String response, int count) {
+        List<String> outline = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            // models number the lines anyway ("1.", "2)", "- ", "Slide 3:")
+            String heading = line.replaceFirst("^\\s*(?i:[-*•]|(?:slide|tweet)?\\s*\\d+[.):])\\s*", "").strip();
+            if (!heading.isEmpty()) {
+                outline.add(heading);
+            }
+            if (outline.size() == count) {
+                break;
+            }
+        }
+        return outline;
+    }
+
+    private String slideImagePrompt(ContentGenerationRequest request, String heading, int index, int total) {
+        return "Slide " + (index + 1) + " of " + total + " of a social media carousel about: " + request.getPrompt()
+                + "\nThis slide: " + heading
+                + "\nConsistent visual style across slides, clean composition, no text on the image.";
+    }
+}
@@ -0,0 +1,112 @@
+package com.back.postpilot.service;
+
+import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
+import com.back.postpilot.EnumTypeConstants.ContentStatus;
+import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GeneratedContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service("twitterPlatformService")
+public class TwitterContentGenerationService implements PlatformContentGenerationService {
+
+    private static final int MAX_CHARACTERS = 280;
+
+    @Override
+    public GeneratedContent generateContent(ContentGenerationRequest request, LLMService llmService, ChatSession chatSession, ChatMessage chatMessage) throws JsonProcessingException {
+        String rawResponse = llmService.generateRawResponse(buildSystemPrompt(request), buildUserPrompt(request), request);
+        return buildContent(request, rawResponse, chatMessage);
+    }
+
+    @Override
+    public ContentPlatForms getSupportedPlatform() {
+        return ContentPlatForms.TWITTER;
+    }
+
+    @Override
+    public int getMaxCharacters() {
+        return MAX_CHARACTERS;
+    }
+
+    @Override
+    public String buildSystemPrompt(ContentGenerationRequest request) {
+        return switch (request.getContentType()) {
+            case THREAD -> """
+                You are a Twitter/X writer creating threads.
+                Create a thread that:
+                - Opens with a hook in the first tweet
+                - Keeps every tweet under 280 characters
+                - Separates tweets with a blank line
+                - Uses at most 2 hashtags, in the last tweet only
+                - Avoids markdown, Twitter shows it as plain text
+                """;
+
+            default -> """
+                You are a Twitter/X writer creating single tweets.
+                Create a tweet that:
+                - Leads with the most interesting point
+                - Is punchy and conversational
+                - Stays under 280 characters including hashtags
+                - Uses at most 2 hashtags at the end
+                - Avoids markdown, Twitter shows it as plain text
+                """;
+        };
+    }
+
+    @Override
+    public String buildUserPrompt(ContentGenerationRequest request) {
+        StringBuilder prompt = new StringBuilder("Create Twitter content about: ")
+                .append(request.getPrompt());
+
+        if (request.getContext() != null && !request.getContext().isEmpty()) {
+            prompt.append("\n\nContext:\n").append(request.getContext());
+        }
+        if (request.getTargetAudience() != null) {
+            prompt.append("\n\nTarget audience: ").append(request.getTargetAudience());
+        }
+        if (request.getTone() != null) {
+            prompt.append("\n\nTone: ").append(request.getTone());
+        }
+        return ChatPrompts.withConversation(prompt.toString(), request);
+    }
+
+    @Override
+    public GeneratedContent buildContent(ContentGenerationRequest request, String rawResponse, ChatMessage chatMessage) throws JsonProcessingException {
+        String hashtags = PlatformText.extractHashtags(rawResponse, 2);
+        String body = PlatformText.stripHashtags(rawResponse);
+        int limit = ChatPrompts.effectiveLimit(MAX_CHARACTERS, request.getMaxCharacters());
+        // threads are limited per tweet, a single tweet as a whole
+        String content = request.getContentType() == ContentType.THREAD
+                ? PlatformText.joinWithHashtags(body, hashtags)
+                : PlatformText.fitWithHashtags(body, hashtags, limit);
+
+        return GeneratedContent.builder()
+                .title("Twitter " + request.getContentType().getLabel() + " on: " + request.getPrompt())
+                .content(content)
+                .hashtags(hashtags)
+                .contentType(request.getContentType())
+                .platform(ContentPlatForms.TWITTER)
+                .status(ContentStatus.DRAFT)
+                .createdAt(LocalDateTime.now())
+                .chatMessage(chatMessage)
+                .metadata(buildTwitterMetadata(limit))
+                .build();
+    }
+
+    private String buildTwitterMetadata(int limit) throws JsonProcessingException {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("platform_features", List.of("threads", "polls", "media"));
+        metadata.put("optimal_post_time", "Weekdays 9AM-12PM");
+        metadata.put("character_limit", limit);
+        return new ObjectMapper().writeValueAsString(metadata);
+    }
+}
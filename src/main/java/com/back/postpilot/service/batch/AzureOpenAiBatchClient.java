@@ -0,0 +1,53 @@
+package com.back.postpilot.service.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Azure OpenAI flavour of the batch API: same files/batches flow as OpenAI, but under the resource endpoint
+ * with an api-version parameter, api-key authentication, and a global-batch deployment as the model.
+ */
+@Component
+public class AzureOpenAiBatchClient extends OpenAiBatchClient {
+
+    private final String endpoint;
+    private final String apiKey;
+    private final String apiVersion;
+
+    public AzureOpenAiBatchClient(RestTemplate restTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${spring.ai.azure.openai.endpoint:}") String endpoint,
+                                  @Value("${spring.ai.azure.openai.api-key:}") String apiKey,
+                                  @Value("${generation.batch.azure.api-version:2024-10-21}") String apiVersion,
+                                  @Value("${generation.batch.azure.deployment:${spring.ai.azure.openai.chat.options.deployment-name:}}") String deployment) {
+        super(restTemplate, objectMapper, endpoint, apiKey, deployment);
+        this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        this.apiKey = apiKey;
+        this.apiVersion = apiVersion;
+    }
+
+    @Override
+    public String getProvider() {
+        return "azureopenai";
+    }
+
+    @Override
+    protected String url(String path) {
+        return endpoint + "/openai" + path + "?api-version=" + apiVersion;
+    }
+
+    @Override
+    protected HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("api-key", apiKey);
+        return headers;
+    }
+
+    @Override
+    protected String requestUrl() {
+        return "/chat/completions";
+    }
+}
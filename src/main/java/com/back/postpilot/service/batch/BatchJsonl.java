@@ -0,0 +1,83 @@
+package com.back.postpilot.service.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the OpenAI batch JSONL format (also used by Azure OpenAI and the local stand-in).
+ */
+final class BatchJsonl {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BatchJsonl() {
+    }
+
+    static String requestLines(List<BatchRequestLine> lines, String model, String url) {
+        StringBuilder jsonl = new StringBuilder();
+        for (BatchRequestLine line : lines) {
+            ObjectNode body = MAPPER.createObjectNode();
+            body.put("model", model);
+            ArrayNode messages = body.putArray("messages");
+            if (line.systemPrompt() != null && !line.systemPrompt().isBlank()) {
+                messages.addObject().put("role", "system").put("content", line.systemPrompt());
+            }
+            messages.addObject().put("role", "user").put("content", line.userPrompt());
+
+            ObjectNode request = MAPPER.createObjectNode();
+            request.put("custom_id", line.customId());
+            request.put("method", "POST");
+            request.put("url", url);
+            request.set("body", body);
+            jsonl.append(request).append('\n');
+        }
+        return jsonl.toString();
+    }
+
+    static String outputLine(String customId, String content, String error) {
+        ObjectNode line = MAPPER.createObjectNode();
+        line.put("custom_id", customId);
+        if (error != null) {
+            line.putObject("error").put("message", error);
+            return line.toString();
+        }
+        ObjectNode response = line.putObject("response");
+        response.put("status_code", 200);
+        response.putObject("body").putArray("choices").addObject()
+                .putObject("message").put("role", "assistant").put("content", content);
+        return line.toString();
+    }
+
+    /**
+     * Parses an output or error file into the two maps, keyed by custom_id.
+     */
+    static void parseResults(String jsonl, Map<String, String> outputs, Map<String, String> errors) throws JsonProcessingException {
+        if (jsonl == null) {
+            return;
+        }
+        for (String raw : jsonl.split("\n")) {
+            if (raw.isBlank()) {
+                continue;
+            }
+            JsonNode line = MAPPER.readTree(raw);
+            String customId = line.path("custom_id").asText();
+            JsonNode error = line.path("error");
+            JsonNode response = line.path("response");
+            int status = response.path("status_code").asInt(0);
+            if (!error.isMissingNode() && !error.isNull()) {
+                errors.put(customId, error.path("message").asText("Batch request failed"));
+            } else if (status != 200) {
+                String message = response.path("body").path("error").path("message").asText("");
+                errors.put(customId, "Provider returned " + status + (message.isEmpty() ? "" : ": " + message));
+            } else {
+                outputs.put(customId, response.path("body").path("choices").path(0).path("message").path("content").asText());
+            }
+        }
+    }
+}
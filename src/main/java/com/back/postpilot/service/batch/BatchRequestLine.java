@@ -0,0 +1,7 @@
+package com.back.postpilot.service.batch;
+
+/**
+ * One chat completion in a provider batch. customId comes back with the result and links it to its item.
+ */
+public record BatchRequestLine(String customId, String systemPrompt, String userPrompt) {
+}
@@ -0,0 +1,126 @@
+package com.back.postpilot.service.batch;
+
+import com.back.postpilot.service.LLMService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * File-based stand-in for a provider batch API, so the off-peak pipeline can run without network access.
+ * A batch is a directory with input.jsonl in the OpenAI format; once it is older than the completion delay,
+ * the next poll answers every line (with the local Ollama model, or an echo of the prompt for tests without
+ * any model) and writes output.jsonl in the OpenAI output format.
+ */
+@Slf4j
+@Component
+public class LocalFileBatchClient implements ProviderBatchClient {
+
+    private final Path directory;
+    private final Duration completionDelay;
+    private final String responder;
+    private final LLMService ollamaService;
+    private final ObjectMapper objectMapper;
+
+    public LocalFileBatchClient(@Value("${generation.batch.local.directory:batches/}") String directory,
+                                @Value("${generation.batch.local.completion-delay:PT1M}") Duration completionDelay,
+                                @Value("${generation.batch.local.responder:ollama}") String responder,
+                                @Qualifier("ollamaService") LLMService ollamaService,
+                                ObjectMapper objectMapper) {
+        this.directory = Paths.get(directory);
+        this.completionDelay = completionDelay;
+        this.responder = responder;
+        this.ollamaService = ollamaService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getProvider() {
+        return "local";
+    }
+
+    @Override
+    public String submit(List<BatchRequestLine> lines) {
+        String batchId = "local-" + UUID.randomUUID();
+        try {
+            Path batchDir = Files.createDirectories(directory.resolve(batchId));
+            Files.writeString(batchDir.resolve("input.jsonl"), BatchJsonl.requestLines(lines, responder, "/v1/chat/completions"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write local batch " + batchId, e);
+        }
+        log.info("Wrote local batch {} with {} requests", batchId, lines.size());
+        return batchId;
+    }
+
+    @Override
+    public ProviderBatchResult poll(String providerBatchId) {
+        Path batchDir = directory.resolve(providerBatchId);
+        Path input = batchDir.resolve("input.jsonl");
+        Path output = batchDir.resolve("output.jsonl");
+        try {
+            if (!Files.exists(input)) {
+                throw new IllegalStateException("Local batch " + providerBatchId + " does not exist");
+            }
+            if (!Files.exists(output)) {
+                Instant submittedAt = Files.getLastModifiedTime(input).toInstant();
+                if (Instant.now().isBefore(submittedAt.plus(completionDelay))) {
+                    return ProviderBatchResult.inProgress();
+                }
+                process(input, output);
+            }
+            Map<String, String> outputs = new HashMap<>();
+            Map<String, String> errors = new HashMap<>();
+            BatchJsonl.parseResults(Files.readString(output), outputs, errors);
+            return new ProviderBatchResult(ProviderBatchResult.Status.FINISHED, outputs, errors);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read local batch " + providerBatchId, e);
+        }
+    }
+
+    private void process(Path input, Path output) throws IOException {
+        StringBuilder results = new StringBuilder();
+        for (String raw : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            if (raw.isBlank()) {
+                continue;
+            }
+            JsonNode line = objectMapper.readTree(raw);
+            String customId = line.path("custom_id").asText();
+            String system = "";
+            String user = "";
+            for (JsonNode message : line.path("body").path("messages")) {
+                if ("system".equals(message.path("role").asText())) {
+                    system = message.path("content").asText();
+                } else {
+                    user = message.path("content").asText();
+                }
+            }
+            try {
+                String content = "echo".equalsIgnoreCase(responder)
+                        ? "[local batch] " + user
+                        : ollamaService.generateRawResponse(system, user, null);
+                results.append(BatchJsonl.outputLine(customId, content, null)).append('\n');
+            } catch (RuntimeException ex) {
+                results.append(BatchJsonl.outputLine(customId, null, ex.getMessage())).append('\n');
+            }
+        }
+        // written in one go, so a poll never sees a half-written output file as finished
+        Path partial = output.resolveSibling("output.jsonl.tmp");
+        Files.writeString(partial, results.toString());
+        Files.move(partial, output);
+    }
+}
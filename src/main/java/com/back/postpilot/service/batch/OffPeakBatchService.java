@@ -0,0 +1,301 @@
+package com.back.postpilot.service.batch;
+
+import com.back.postpilot.DTO.ChatMessageDTO;
+import com.back.postpilot.DTO.GenerateContentDTO;
+import com.back.postpilot.EnumTypeConstants.BatchExecutionMode;
+import com.back.postpilot.EnumTypeConstants.ContentPlatForms;
+import com.back.postpilot.EnumTypeConstants.GenerationBatchStatus;
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import com.back.postpilot.EnumTypeConstants.MessageType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GeneratedContent;
+import com.back.postpilot.entity.GenerationBatch;
+import com.back.postpilot.entity.GenerationJob;
+import com.back.postpilot.notification.PushNotification;
+import com.back.postpilot.repository.GenerationBatchRepository;
+import com.back.postpilot.repository.GenerationJobRepository;
+import com.back.postpilot.service.ChatPersistenceService;
+import com.back.postpilot.service.PlatformContentGenerationService;
+import com.back.postpilot.service.PlatformContentGenerationServiceFactory;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import com.back.postpilot.service.memory.ConversationMemory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drives OFF_PEAK bulk batches through a provider batch API (generation.batch.provider). Each poll tick:
+ * <ol>
+ *     <li>polls the provider batch in flight, if any, and writes finished results into their items'
+ *     PROCESSING content rows;</li>
+ *     <li>submits the batch's queued items (new ones, or failed ones re-queued by a retry) as a new provider batch;</li>
+ *     <li>marks the batch completed once nothing is queued or in flight.</li>
+ * </ol>
+ * Only the text is generated off-peak; images for IMAGE/CAROUSEL content still have to be generated interactively.
+ */
+@Slf4j
+@Service
+public class OffPeakBatchService {
+
+    private final GenerationBatchRepository generationBatchRepository;
+    private final GenerationJobRepository generationJobRepository;
+    private final ChatPersistenceService chatPersistenceService;
+    private final PlatformContentGenerationServiceFactory platformContentGenerationServiceFactory;
+    private final ConversationMemory conversationMemory;
+    private final Map<String, ProviderBatchClient> clients;
+    private final TaskScheduler taskScheduler;
+    private final GenerationTaskRunner generationTaskRunner;
+    private final ObjectMapper objectMapper;
+
+    private final String provider;
+    private final Duration pollInterval;
+
+    private final AtomicBoolean ticking = new AtomicBoolean();
+
+    public OffPeakBatchService(GenerationBatchRepository generationBatchRepository,
+                               GenerationJobRepository generationJobRepository,
+                               ChatPersistenceService chatPersistenceService,
+                               PlatformContentGenerationServiceFactory platformContentGenerationServiceFactory,
+                               ConversationMemory conversationMemory,
+                               List<ProviderBatchClient> clients,
+                               TaskScheduler taskScheduler,
+                               GenerationTaskRunner generationTaskRunner,
+                               ObjectMapper objectMapper,
+                               @Value("${generation.batch.provider:local}") String provider,
+                               @Value("${generation.batch.poll-interval:PT1M}") Duration pollInterval) {
+        this.generationBatchRepository = generationBatchRepository;
+        this.generationJobRepository = generationJobRepository;
+        this.chatPersistenceService = chatPersistenceService;
+        this.platformContentGenerationServiceFactory = platformContentGenerationServiceFactory;
+        this.conversationMemory = conversationMemory;
+        this.clients = clients.stream().collect(Collectors.toMap(ProviderBatchClient::getProvider, Function.identity()));
+        this.taskScheduler = taskScheduler;
+        this.generationTaskRunner = generationTaskRunner;
+        this.objectMapper = objectMapper;
+        this.provider = provider;
+        this.pollInterval = pollInterval;
+    }
+
+    @PostConstruct
+    public void startPolling() {
+        if (!clients.containsKey(provider)) {
+            throw new IllegalStateException("Unknown generation.batch.provider '" + provider + "', expected one of " + clients.keySet());
+        }
+        taskScheduler.scheduleWithFixedDelay(this::tick, pollInterval);
+    }
+
+    private void tick() {
+        // provider calls and local stand-in generation are slow, keep them off the shared scheduler threads
+        if (!ticking.compareAndSet(false, true)) {
+            return;
+        }
+        generationTaskRunner.submit(() -> {
+            try {
+                List<GenerationBatch> active = generationBatchRepository.findByExecutionModeAndStatusInOrderByCreatedAtAsc(
+                        BatchExecutionMode.OFF_PEAK, List.of(GenerationBatchStatus.QUEUED, GenerationBatchStatus.RUNNING));
+                for (GenerationBatch batch : active) {
+                    try {
+                        advance(batch);
+                    } catch (Exception ex) {
+                        log.error("Off-peak batch {} could not be advanced, retrying on the next poll", batch.getBatchId(), ex);
+                    }
+                }
+            } finally {
+                ticking.set(false);
+            }
+            return null;
+        });
+    }
+
+    private void advance(GenerationBatch batch) {
+        if (batch.getProviderBatchId() != null) {
+            ProviderBatchResult result = clients.get(batch.getProvider()).poll(batch.getProviderBatchId());
+            if (!result.isFinished()) {
+                return;
+            }
+            applyResults(batch, result);
+            batch.setProviderBatchId(null);
+            batch = generationBatchRepository.save(batch);
+        }
+
+        List<GenerationJob> queued = generationJobRepository.findByBatchIdAndStatusIn(batch.getBatchId(), List.of(GenerationJobStatus.QUEUED));
+        if (!queued.isEmpty()) {
+            submitToProvider(batch, queued);
+            return;
+        }
+
+        boolean anyFailed = generationJobRepository.countByBatchIdAndStatus(batch.getBatchId(), GenerationJobStatus.FAILED) > 0;
+        batch.setStatus(anyFailed ? GenerationBatchStatus.COMPLETED_WITH_ERRORS : GenerationBatchStatus.COMPLETED);
+        batch.setCompletedAt(LocalDateTime.now());
+        batch = generationBatchRepository.save(batch);
+        log.info("Off-peak batch {} finished with status {}", batch.getBatchId(), batch.getStatus());
+        notifyUser(batch);
+    }
+
+    private void submitToProvider(GenerationBatch batch, List<GenerationJob> items) {
+        List<BatchRequestLine> lines = new ArrayList<>();
+        for (GenerationJob item : items) {
+            try {
+                ContentGenerationRequest request = prepare(item);
+                PlatformContentGenerationService platformService = platformService(request);
+                lines.add(new BatchRequestLine(item.getJobId(),
+                        platformService.buildSystemPrompt(request),
+                        platformService.buildUserPrompt(request)));
+            } catch (Exception ex) {
+                log.error("Off-peak item {} of batch {} could not be prepared", item.getBatchIndex(), batch.getBatchId(), ex);
+                fail(item, ex.getMessage());
+            }
+        }
+        // prepared turns are saved before submitting, so a failed submit never opens them a second time
+        generationJobRepository.saveAll(items);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        ProviderBatchClient client = clients.get(provider);
+        String providerBatchId = client.submit(lines);
+
+        batch.setProvider(client.getProvider());
+        batch.setProviderBatchId(providerBatchId);
+        batch.setStatus(GenerationBatchStatus.RUNNING);
+        if (batch.getStartedAt() == null) {
+            batch.setStartedAt(LocalDateTime.now());
+        }
+        generationBatchRepository.save(batch);
+        for (GenerationJob item : items) {
+            if (item.getStatus() == GenerationJobStatus.QUEUED) {
+                item.setStatus(GenerationJobStatus.RUNNING);
+                item.setAttempts(item.getAttempts() + 1);
+            }
+        }
+        generationJobRepository.saveAll(items);
+    }
+
+    /**
+     * Opens the chat turn and the PROCESSING content row for an item, the first time it is submitted.
+     * The session id is written back into the stored request so a retry reuses the same turn.
+     */
+    private ContentGenerationRequest prepare(GenerationJob item) throws JsonProcessingException {
+        ContentGenerationRequest request = objectMapper.readValue(item.getRequestPayload(), ContentGenerationRequest.class);
+        if (item.getStartedAt() == null) {
+            ChatSession session = chatPersistenceService.openTurn(request);
+            request.setSessionId(session.getSessionId());
+            item.setSessionId(session.getSessionId());
+            item.setStartedAt(LocalDateTime.now());
+            item.setRequestPayload(objectMapper.writeValueAsString(request));
+        }
+        ContentPlatForms platform = ContentPlatForms.valueOf(request.getPlatform().toUpperCase());
+        if (item.getGeneratedContentId() == null && platform != ContentPlatForms.DEFAULT) {
+            ChatSession session = chatPersistenceService.findOrCreateSession(request);
+            item.setGeneratedContentId(chatPersistenceService.createPendingContent(session, request, platform).getId());
+        }
+        request.setConversationContext(conversationMemory.buildContext(chatPersistenceService.findOrCreateSession(request)));
+        return request;
+    }
+
+    private void applyResults(GenerationBatch batch, ProviderBatchResult result) {
+        List<GenerationJob> running = generationJobRepository.findByBatchIdAndStatusIn(batch.getBatchId(), List.of(GenerationJobStatus.RUNNING));
+        for (GenerationJob item : running) {
+            String output = result.outputs().get(item.getJobId());
+            if (output == null) {
+                fail(item, result.errors().getOrDefault(item.getJobId(), "Not processed by the " + batch.getProvider() + " batch"));
+                continue;
+            }
+            try {
+                complete(item, output);
+            } catch (Exception ex) {
+                log.error("Off-peak item {} of batch {} could not be saved", item.getBatchIndex(), batch.getBatchId(), ex);
+                fail(item, ex.getMessage());
+            }
+        }
+    }
+
+    private void complete(GenerationJob item, String output) throws JsonProcessingException {
+        ContentGenerationRequest request = objectMapper.readValue(item.getRequestPayload(), ContentGenerationRequest.class);
+
+        ChatMessage aiMessage = new ChatMessage();
+        aiMessage.setContent(output);
+        aiMessage.setMessageType(MessageType.ASSISTANT);
+        aiMessage.setTimestamp(LocalDateTime.now());
+        GeneratedContent generated = platformService(request).buildContent(request, output, aiMessage);
+        GeneratedContent saved = chatPersistenceService.completePendingContent(item.getSessionId(),
+                fallbackTitle(request.getPrompt()), aiMessage, item.getGeneratedContentId(), generated);
+
+        item.setResultPayload(objectMapper.writeValueAsString(new ChatMessageDTO.Builder()
+                .id(aiMessage.getId())
+                .sessionId(item.getSessionId())
+                .sender(MessageType.ASSISTANT.toString())
+                .content(aiMessage.getContent())
+                .messageType(MessageType.ASSISTANT)
+                .timestamp(aiMessage.getTimestamp())
+                .generateContentDTO(saved != null ? toGeneratedContentDTO(saved) : null)
+                .build()));
+        item.setErrorMessage(null);
+        item.setStatus(GenerationJobStatus.COMPLETED);
+        item.setCompletedAt(LocalDateTime.now());
+        generationJobRepository.save(item);
+    }
+
+    private void fail(GenerationJob item, String message) {
+        if (item.getGeneratedContentId() != null) {
+            chatPersistenceService.discardPendingContent(item.getGeneratedContentId());
+            item.setGeneratedContentId(null);
+        }
+        item.setStatus(GenerationJobStatus.FAILED);
+        item.setErrorMessage(message);
+        item.setCompletedAt(LocalDateTime.now());
+        generationJobRepository.save(item);
+    }
+
+    private PlatformContentGenerationService platformService(ContentGenerationRequest request) {
+        return platformContentGenerationServiceFactory.getPlatformService(ContentPlatForms.valueOf(request.getPlatform().toUpperCase()));
+    }
+
+    private String fallbackTitle(String prompt) {
+        return prompt.length() > 50 ? prompt.substring(0, 47) + "..." : prompt;
+    }
+
+    private GenerateContentDTO toGeneratedContentDTO(GeneratedContent content) {
+        return GenerateContentDTO.builder()
+                .id(content.getId())
+                .title(content.getTitle())
+                .platform(String.valueOf(content.getPlatform()))
+                .content(content.getContent())
+                .contentType(content.getContentType())
+                .hashtags(content.getHashtags())
+                .metadata(content.getMetadata())
+                .createdAt(content.getCreatedAt())
+                .status(content.getStatus())
+                .build();
+    }
+
+    private void notifyUser(GenerationBatch batch) {
+        if (batch.getUserId() == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of(
+                    "batchId", batch.getBatchId(),
+                    "status", batch.getStatus(),
+                    "total", batch.getTotalItems()));
+            PushNotification.sendEvent(batch.getUserId().toString(), "generation-batch", payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize completion event for batch {}", batch.getBatchId(), e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.back.postpilot.service.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OpenAI Batch API: upload the JSONL input file, create a batch with a 24h completion window, poll it,
+ * then download the output and error files. Batch requests are billed at a discount and have their own
+ * rate limits, so they don't take capacity from interactive requests.
+ */
+@Slf4j
+@Component
+public class OpenAiBatchClient implements ProviderBatchClient {
+
+    // terminal states; "expired" and "cancelled" batches still return the lines they finished
+    private static final Set<String> FINISHED = Set.of("completed", "failed", "expired", "cancelled");
+
+    protected final RestTemplate restTemplate;
+    protected final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String apiKey;
+    private final String model;
+
+    public OpenAiBatchClient(RestTemplate restTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${generation.batch.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+                             @Value("${spring.ai.openai.api-key:}") String apiKey,
+                             @Value("${generation.batch.openai.model:gpt-4o-mini}") String model) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.model = model;
+    }
+
+    @Override
+    public String getProvider() {
+        return "openai";
+    }
+
+    @Override
+    public String submit(List<BatchRequestLine> lines) {
+        String inputFileId = uploadInput(BatchJsonl.requestLines(lines, model(), requestUrl()));
+
+        Map<String, Object> body = Map.of(
+                "input_file_id", inputFileId,
+                "endpoint", requestUrl(),
+                "completion_window", "24h");
+        HttpHeaders headers = headers();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JsonNode batch = exchange(url("/batches"), HttpMethod.POST, new HttpEntity<>(body, headers));
+        String batchId = batch.path("id").asText();
+        log.info("Submitted {} batch {} with {} requests", getProvider(), batchId, lines.size());
+        return batchId;
+    }
+
+    @Override
+    public ProviderBatchResult poll(String providerBatchId) {
+        JsonNode batch = exchange(url("/batches/" + providerBatchId), HttpMethod.GET, new HttpEntity<>(headers()));
+        String status = batch.path("status").asText();
+        if (!FINISHED.contains(status)) {
+            return ProviderBatchResult.inProgress();
+        }
+
+        Map<String, String> outputs = new HashMap<>();
+        Map<String, String> errors = new HashMap<>();
+        try {
+            BatchJsonl.parseResults(downloadFile(batch.path("output_file_id")), outputs, errors);
+            BatchJsonl.parseResults(downloadFile(batch.path("error_file_id")), outputs, errors);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read results of " + getProvider() + " batch " + providerBatchId, e);
+        }
+        log.info("{} batch {} finished with status {}: {} results, {} errors", getProvider(), providerBatchId, status,
+                outputs.size(), errors.size());
+        return new ProviderBatchResult(ProviderBatchResult.Status.FINISHED, outputs, errors);
+    }
+
+    protected String url(String path) {
+        return baseUrl + path;
+    }
+
+    protected HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(apiKey);
+        return headers;
+    }
+
+    protected String model() {
+        return model;
+    }
+
+    /**
+     * Endpoint every line of the batch is sent to.
+     */
+    protected String requestUrl() {
+        return "/v1/chat/completions";
+    }
+
+    private String uploadInput(String jsonl) {
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("purpose", "batch");
+        form.add("file", new ByteArrayResource(jsonl.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "batch-input.jsonl";
+            }
+        });
+        HttpHeaders headers = headers();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return exchange(url("/files"), HttpMethod.POST, new HttpEntity<>(form, headers)).path("id").asText();
+    }
+
+    private String downloadFile(JsonNode fileId) {
+        if (fileId.isMissingNode() || fileId.isNull() || fileId.asText().isBlank()) {
+            return null;
+        }
+        return restTemplate.exchange(url("/files/" + fileId.asText() + "/content"), HttpMethod.GET,
+                new HttpEntity<>(headers()), String.class).getBody();
+    }
+
+    private JsonNode exchange(String url, HttpMethod method, HttpEntity<?> entity) {
+        String response = restTemplate.exchange(url, method, entity, String.class).getBody();
+        try {
+            return objectMapper.readTree(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected " + getProvider() + " batch API response from " + url, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.back.postpilot.service.batch;
+
+import java.util.List;
+
+/**
+ * A provider's asynchronous batch API: requests are submitted as one file and the results are polled later.
+ */
+public interface ProviderBatchClient {
+
+    /**
+     * Key used in generation.batch.provider ("openai", "azureopenai", "local").
+     */
+    String getProvider();
+
+    /**
+     * Submits the lines as one batch and returns the provider's batch id.
+     */
+    String submit(List<BatchRequestLine> lines);
+
+    ProviderBatchResult poll(String providerBatchId);
+}
@@ -0,0 +1,22 @@
+package com.back.postpilot.service.batch;
+
+import java.util.Map;
+
+/**
+ * State of a submitted provider batch. Once finished, every custom id is either in outputs (the generated text)
+ * or in errors; ids missing from both were not processed by the provider.
+ */
+public record ProviderBatchResult(Status status, Map<String, String> outputs, Map<String, String> errors) {
+
+    public enum Status {
+        IN_PROGRESS, FINISHED
+    }
+
+    public static ProviderBatchResult inProgress() {
+        return new ProviderBatchResult(Status.IN_PROGRESS, Map.of(), Map.of());
+    }
+
+    public boolean isFinished() {
+        return status == Status.FINISHED;
+    }
+}
@@ -0,0 +1,41 @@
+package com.back.postpilot.service.generation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Raised by the HTTP layer when the client goes away. The pipeline checks it between phases and registered
+ * callbacks cancel whatever is in flight (provider futures, stream subscriptions).
+ */
+public class CancellationSignal {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<Runnable> callbacks = new CopyOnWriteArrayList<>();
+
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            callbacks.forEach(Runnable::run);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Runs {@code callback} on cancellation, or right away if that already happened.
+     */
+    public void onCancel(Runnable callback) {
+        callbacks.add(callback);
+        if (cancelled.get() && callbacks.remove(callback)) {
+            callback.run();
+        }
+    }
+
+    public void check(String phase) {
+        if (isCancelled()) {
+            throw new GenerationCancelledException("Client disconnected before " + phase);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.back.postpilot.service.generation;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Absolute point in time by which a request must be answered. Created at the HTTP edge and carried on the
+ * request objects so every downstream provider or DB call can use what is left of the budget as its timeout.
+ */
+public record Deadline(Instant expiresAt) {
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(Instant.now().plus(budget));
+    }
+
+    public Duration remaining() {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+
+    /**
+     * Aborts the caller before it starts {@code phase} if the budget is already spent.
+     */
+    public void check(String phase) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline " + expiresAt + " passed before " + phase);
+        }
+    }
+
+    public Deadline earlierOf(Deadline other) {
+        return other == null || expiresAt.isBefore(other.expiresAt) ? this : other;
+    }
+}
@@ -0,0 +1,8 @@
+package com.back.postpilot.service.generation;
+
+public class DeadlineExceededException extends GenerationFailedException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.back.postpilot.service.generation;
+
+public class GenerationCancelledException extends GenerationFailedException {
+
+    public GenerationCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package com.back.postpilot.service.generation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a group of independent provider calls concurrently under one shared deadline.
+ * {@link #join()} returns once every task has succeeded; the first failure or the deadline
+ * cancels (interrupts) every task still running. Same shape as a shutdown-on-failure
+ * StructuredTaskScope, which is still a preview API on Java 21.
+ */
+public class GenerationScope implements AutoCloseable {
+
+    private final ExecutorCompletionService<Object> completionService;
+    private final List<Future<?>> forked = new ArrayList<>();
+    private final Instant deadline;
+
+    GenerationScope(ExecutorService executor, Instant deadline) {
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.deadline = deadline;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = (Future<T>) completionService.submit((Callable<Object>) task);
+        forked.add(future);
+        return future;
+    }
+
+    public void join() {
+        try {
+            for (int completed = 0; completed < forked.size(); completed++) {
+                long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+                Future<Object> done = completionService.poll(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    cancelAll();
+                    throw new DeadlineExceededException("Generation did not finish before the deadline " + deadline);
+                }
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll();
+            // deadline and cancellation keep their own type so the controller maps them to 504 / 503
+            if (e.getCause() instanceof DeadlineExceededException || e.getCause() instanceof GenerationCancelledException) {
+                throw (GenerationFailedException) e.getCause();
+            }
+            throw new GenerationFailedException("Generation task failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Interrupted while waiting for generation tasks");
+        }
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    private void cancelAll() {
+        forked.forEach(f -> f.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+}
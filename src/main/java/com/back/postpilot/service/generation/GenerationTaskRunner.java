@@ -0,0 +1,27 @@
+package com.back.postpilot.service.generation;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+@Component
+public class GenerationTaskRunner {
+
+    private final ExecutorService generationExecutor;
+
+    public GenerationTaskRunner(@Qualifier("generationExecutor") ExecutorService generationExecutor) {
+        this.generationExecutor = generationExecutor;
+    }
+
+    public GenerationScope open(Instant deadline) {
+        return new GenerationScope(generationExecutor, deadline);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return generationExecutor.submit(task);
+    }
+}
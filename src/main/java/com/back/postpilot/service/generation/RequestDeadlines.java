@@ -0,0 +1,70 @@
+package com.back.postpilot.service.generation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Turns the client's deadline headers into a {@link Deadline}. {@code X-Request-Deadline} is an absolute instant
+ * (epoch millis or ISO-8601), {@code X-Request-Timeout} a budget (millis or ISO-8601 duration). Without either the
+ * endpoint's server-side default applies, and a client can never ask for more than {@code chat.deadline.max}.
+ */
+@Slf4j
+@Component
+public class RequestDeadlines {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Duration maxBudget;
+
+    public RequestDeadlines(@Value("${chat.deadline.max:PT10M}") Duration maxBudget) {
+        this.maxBudget = maxBudget;
+    }
+
+    public Deadline resolve(String deadlineHeader, String timeoutHeader, Duration endpointDefault) {
+        Deadline cap = Deadline.after(maxBudget);
+        Deadline requested = parseDeadline(deadlineHeader);
+        if (requested == null) {
+            Duration timeout = parseTimeout(timeoutHeader);
+            requested = timeout != null ? Deadline.after(timeout) : Deadline.after(endpointDefault);
+        }
+        return requested.earlierOf(cap);
+    }
+
+    private Deadline parseDeadline(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            String value = header.trim();
+            Instant instant = value.chars().allMatch(Character::isDigit)
+                    ? Instant.ofEpochMilli(Long.parseLong(value))
+                    : Instant.parse(value);
+            return new Deadline(instant);
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            log.warn("Ignoring unparseable {} header '{}'", DEADLINE_HEADER, header);
+            return null;
+        }
+    }
+
+    private Duration parseTimeout(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            String value = header.trim();
+            Duration timeout = value.chars().allMatch(Character::isDigit)
+                    ? Duration.ofMillis(Long.parseLong(value))
+                    : Duration.parse(value);
+            return timeout.isNegative() ? Duration.ZERO : timeout;
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            log.warn("Ignoring unparseable {} header '{}'", TIMEOUT_HEADER, header);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.back.postpilot.service.generation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: the first caller for a key runs the supplier on its own thread,
+ * every caller arriving while it is in flight waits for and shares that result (or failure).
+ * The key is forgotten as soon as the call completes, so nothing is cached here.
+ * <p>
+ * A leader that stops because of its own request (deadline passed, client gone, thread interrupted) doesn't
+ * fail the callers waiting on it: one of them retries as the new leader. Waiting callers give up at their own
+ * deadline.
+ */
+@Slf4j
+@Component
+public class SingleFlight {
+
+    private static final Object RETRY = new Object();
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong leaderRetries = new AtomicLong();
+
+    public <T> T execute(String key, Supplier<T> supplier) {
+        return execute(key, null, supplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Deadline deadline, Supplier<T> supplier) {
+        while (true) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                return lead(key, call, supplier);
+            }
+            coalesced.incrementAndGet();
+            log.debug("Joining in-flight call for key {}", key);
+            Object result = await(existing, deadline);
+            if (result != RETRY) {
+                return (T) result;
+            }
+            leaderRetries.incrementAndGet();
+            log.debug("Leader for key {} gave up on its own request, retrying", key);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("executions", executions.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("leaderRetries", leaderRetries.get());
+        return stats;
+    }
+
+    private <T> T lead(String key, CompletableFuture<Object> call, Supplier<T> supplier) {
+        executions.incrementAndGet();
+        // the key is released before completing, so a follower told to retry never finds this finished call again
+        try {
+            T result = supplier.get();
+            inFlight.remove(key, call);
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(endedByLeader(ex) ? new LeaderGaveUp() : ex);
+            throw ex;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> call, Deadline deadline) {
+        try {
+            if (deadline == null) {
+                return call.get();
+            }
+            return call.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline passed while waiting for an identical in-flight generation");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Interrupted while waiting for an identical in-flight generation");
+        } catch (CancellationException e) {
+            return RETRY;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LeaderGaveUp) {
+                return RETRY;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new GenerationFailedException("Identical in-flight generation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Whether the leader's failure comes from its own request rather than from the call itself.
+     */
+    private boolean endedByLeader(Throwable ex) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException || cause instanceof GenerationCancelledException
+                    || cause instanceof InterruptedException || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class LeaderGaveUp extends RuntimeException {
+        LeaderGaveUp() {
+            super(null, null, false, false);
+        }
+    }
+}
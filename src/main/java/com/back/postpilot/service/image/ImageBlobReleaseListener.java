@@ -0,0 +1,53 @@
+package com.back.postpilot.service.image;
+
+import com.back.postpilot.entity.ContentImage;
+import jakarta.persistence.PreRemove;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Releases a ContentImage's blob reference whenever the row is deleted, directly or by cascade from its
+ * GeneratedContent, ChatSession or user. The release runs after the delete commits, so a rolled back delete
+ * keeps its reference. Hibernate gets this listener from the Spring context.
+ */
+@Slf4j
+@Component
+public class ImageBlobReleaseListener {
+
+    // looked up lazily: Hibernate creates entity listeners while the context is still starting
+    private final ObjectProvider<ImageBlobService> imageBlobService;
+
+    public ImageBlobReleaseListener(ObjectProvider<ImageBlobService> imageBlobService) {
+        this.imageBlobService = imageBlobService;
+    }
+
+    @PreRemove
+    public void releaseBlob(ContentImage image) {
+        if (image.getBlob() == null) {
+            return;
+        }
+        Long blobId = image.getBlob().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(blobId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(blobId);
+            }
+        });
+    }
+
+    private void release(Long blobId) {
+        try {
+            imageBlobService.getObject().release(blobId);
+        } catch (RuntimeException ex) {
+            // the delete itself has committed; a missed release only leaves the file behind
+            log.warn("Could not release image blob {}: {}", blobId, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.back.postpilot.service.image;
+
+import com.back.postpilot.entity.ImageBlob;
+import com.back.postpilot.repository.ImageBlobRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Reference-counted access to {@link ImageBlob}s. Storing bytes that are already known only bumps the
+ * count, so a duplicate upload costs a metadata row. A blob whose count drops to zero is purged after the
+ * releasing transaction commits: under the row lock, and only if nothing acquired it again in between, the
+ * row and then the file are deleted. A purge whose commit fails leaves an unreferenced row without a file,
+ * which the next acquire of those bytes repairs. Two first-time acquires of the same bytes can still collide
+ * on the unique sha256; the loser fails and the caller's retry finds the blob.
+ * <p>
+ * ContentImage rows release their blob through {@link ImageBlobReleaseListener}, including cascaded deletes.
+ */
+@Slf4j
+@Service
+public class ImageBlobService {
+
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageFileStore imageFileStore;
+    private final TransactionTemplate purgeTransaction;
+
+    public ImageBlobService(ImageBlobRepository imageBlobRepository, ImageFileStore imageFileStore,
+                            PlatformTransactionManager transactionManager) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageFileStore = imageFileStore;
+        this.purgeTransaction = new TransactionTemplate(transactionManager);
+        this.purgeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adds a reference to the blob for the staged bytes, creating it (and moving the file into place) if
+     * they are new. The staging file is always cleaned up.
+     */
+    @Transactional
+    public ImageBlob acquire(ImageFileStore.StagedImage staged) {
+        try {
+            Optional<ImageBlob> existing = imageBlobRepository.findBySha256ForUpdate(staged.sha256());
+            if (existing.isPresent()) {
+                ImageBlob blob = existing.get();
+                // normally a no-op; restores the file of an unreferenced blob whose purge didn't commit
+                imageFileStore.commit(staged);
+                blob.setRefCount(blob.getRefCount() + 1);
+                log.debug("Image {} already stored, now referenced {} times", blob.getFileName(), blob.getRefCount());
+                return blob;
+            }
+            imageFileStore.commit(staged);
+            return imageBlobRepository.save(ImageBlob.builder()
+                    .sha256(staged.sha256())
+                    .fileName(staged.fileName())
+                    .mimeType(staged.mimeType())
+                    .size(staged.size())
+                    .width(staged.width())
+                    .height(staged.height())
+                    .refCount(1)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            imageFileStore.discard(staged);
+        }
+    }
+
+    /**
+     * Drops one reference; once the last one is gone and this commits, the blob and its file are purged.
+     * Runs in its own transaction so it can be called from another transaction's afterCommit.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void release(Long blobId) {
+        imageBlobRepository.findByIdForUpdate(blobId).ifPresent(locked -> {
+            locked.setRefCount(Math.max(0, locked.getRefCount() - 1));
+            if (locked.getRefCount() == 0) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        purge(blobId);
+                    }
+                });
+            }
+        });
+    }
+
+    private void purge(Long blobId) {
+        try {
+            purgeTransaction.executeWithoutResult(status ->
+                    imageBlobRepository.findByIdForUpdate(blobId)
+                            .filter(locked -> locked.getRefCount() == 0)
+                            .ifPresent(locked -> {
+                                imageBlobRepository.delete(locked);
+                                imageBlobRepository.flush();
+                                // still holding the row lock, so no acquire can be reusing the file
+                                imageFileStore.delete(locked.getFileName());
+                                log.debug("Deleted unreferenced image {}", locked.getFileName());
+                            }));
+        } catch (RuntimeException ex) {
+            log.warn("Could not purge unreferenced image blob {}: {}", blobId, ex.getMessage());
+        }
+    }
+}
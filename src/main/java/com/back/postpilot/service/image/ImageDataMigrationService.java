@@ -0,0 +1,161 @@
+package com.back.postpilot.service.image;
+
+import com.back.postpilot.entity.ContentImage;
+import com.back.postpilot.entity.ImageBlob;
+import com.back.postpilot.repository.ContentImageRepository;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves the base64 copies in p_content_image.image_data into the image store, image.storage.migration.batch-size
+ * rows at a time, one row per transaction. A row that already has a blob just loses its inline copy; otherwise
+ * the bytes become (or add a reference to) a blob and a serve URL pointing at our own copy is rewritten to it,
+ * in the same full-URL shape uploads use. Rows are written with targeted updates guarded on the inline data still
+ * being there, so edits made while a row was being decoded stand. The flat pre-blob file that URL named is
+ * deleted once the update has committed.
+ * Rows that can't be decoded are logged and left alone. Runs at startup and every
+ * image.storage.migration.interval, and only in image.storage.mode=blob.
+ */
+@Slf4j
+@Service
+public class ImageDataMigrationService {
+
+    private final ContentImageRepository contentImageRepository;
+    private final ImageFileStore imageFileStore;
+    private final ImageBlobService imageBlobService;
+    private final TaskScheduler taskScheduler;
+    private final GenerationTaskRunner generationTaskRunner;
+
+    private final String storageMode;
+    private final String serveUrlPrefix;
+    private final Duration interval;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ImageDataMigrationService(ContentImageRepository contentImageRepository,
+                                     ImageFileStore imageFileStore,
+                                     ImageBlobService imageBlobService,
+                                     TaskScheduler taskScheduler,
+                                     GenerationTaskRunner generationTaskRunner,
+                                     @Value("${image.storage.mode:blob}") String storageMode,
+                                     @Value("${image.serve.url-prefix:/api/images/serve/}") String serveUrlPrefix,
+                                     @Value("${image.storage.migration.interval:PT1H}") Duration interval,
+                                     @Value("${image.storage.migration.batch-size:100}") int batchSize) {
+        this.contentImageRepository = contentImageRepository;
+        this.imageFileStore = imageFileStore;
+        this.imageBlobService = imageBlobService;
+        this.taskScheduler = taskScheduler;
+        this.generationTaskRunner = generationTaskRunner;
+        this.storageMode = storageMode;
+        this.serveUrlPrefix = serveUrlPrefix;
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void startMigration() {
+        if (!"blob".equalsIgnoreCase(storageMode)) {
+            log.info("image.storage.mode={}, keeping inline image data", storageMode);
+            return;
+        }
+        taskScheduler.scheduleWithFixedDelay(this::tick, interval);
+    }
+
+    private void tick() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        generationTaskRunner.submit(() -> {
+            try {
+                migrateAll();
+            } catch (Exception ex) {
+                log.error("Image data migration pass failed, retrying on the next run", ex);
+            } finally {
+                running.set(false);
+            }
+            return null;
+        });
+    }
+
+    private void migrateAll() {
+        long afterId = 0;
+        int migrated = 0;
+        int failed = 0;
+        List<Long> ids;
+        do {
+            ids = contentImageRepository.findIdsWithImageDataAfter(afterId, PageRequest.of(0, batchSize));
+            for (Long id : ids) {
+                if (migrate(id)) {
+                    migrated++;
+                } else {
+                    failed++;
+                }
+                afterId = id;
+            }
+        } while (ids.size() == batchSize);
+        if (migrated > 0 || failed > 0) {
+            log.info("Moved inline data of {} images into the image store, {} could not be moved", migrated, failed);
+        }
+    }
+
+    private boolean migrate(Long id) {
+        ContentImage image = contentImageRepository.findById(id).orElse(null);
+        if (image == null || image.getImageData() == null) {
+            return true;
+        }
+        if (image.getBlob() != null) {
+            contentImageRepository.clearImageData(id);
+            return true;
+        }
+        ImageBlob acquired = null;
+        try {
+            InputStream payload = new ByteArrayInputStream(image.getImageData().getBytes(StandardCharsets.US_ASCII));
+            try (InputStream decoded = Base64.getMimeDecoder().wrap(payload)) {
+                acquired = imageBlobService.acquire(imageFileStore.stage(decoded, image.getMimeType()));
+            }
+            String url = image.getImageUrl();
+            String rewrittenUrl = null;
+            String legacyFile = null;
+            // a URL into our own serve path may point at a flat upload file; provider URLs are left to ingestion
+            if (url == null || url.isBlank() || url.contains(serveUrlPrefix)) {
+                if (url != null && url.contains(serveUrlPrefix)) {
+                    legacyFile = url.substring(url.indexOf(serveUrlPrefix) + serveUrlPrefix.length());
+                }
+                rewrittenUrl = imageFileStore.serveUrl(acquired.getFileName());
+            }
+            int updated = contentImageRepository.moveImageDataToBlob(id, acquired, rewrittenUrl,
+                    String.valueOf(acquired.getSize()), acquired.getMimeType(), acquired.getWidth(), acquired.getHeight());
+            if (updated == 0) {
+                // deleted, edited or stored elsewhere since it was read
+                imageBlobService.release(acquired.getId());
+                log.debug("Image {} changed during migration, dropped its stored copy", id);
+                return true;
+            }
+            // the update has committed, nothing points at the flat file any more
+            if (legacyFile != null && !legacyFile.equals(acquired.getFileName())) {
+                imageFileStore.deleteLegacy(legacyFile);
+            }
+            return true;
+        } catch (Exception ex) {
+            if (acquired != null) {
+                imageBlobService.release(acquired.getId());
+            }
+            log.warn("Could not move inline data of image {}: {}", id, ex.getMessage());
+            return false;
+        }
+    }
+}
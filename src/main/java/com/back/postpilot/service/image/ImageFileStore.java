@@ -0,0 +1,222 @@
+package com.back.postpilot.service.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image files in image.upload.directory. A file is named after the SHA-256 of its bytes
+ * and lives two directory levels down ("ab/cd/abcd...png"), so no directory grows past a few thousand entries
+ * and identical bytes are only ever written once. Images are streamed into a staging file while the hash is
+ * computed; {@link ImageBlobService} decides under the blob row lock whether the staged file is moved into
+ * place or is a duplicate and dropped.
+ */
+@Slf4j
+@Component
+public class ImageFileStore {
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]{3,4}");
+    private static final Pattern LEGACY_NAME = Pattern.compile("[0-9A-Za-z_-]+\\.[A-Za-z]{3,4}");
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String serveUrlBase;
+
+    public ImageFileStore(@Value("${image.upload.directory:uploads/images/}") String directory,
+                          @Value("${image.ingestion.max-bytes:20971520}") long maxBytes,
+                          @Value("${server.port:8080}") String serverPort,
+                          @Value("${server.servlet.context-path:}") String contextPath,
+                          @Value("${image.serve.url-prefix:/api/images/serve/}") String serveUrlPrefix) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.serveUrlBase = "http://localhost:" + serverPort + (contextPath != null ? contextPath : "") + serveUrlPrefix;
+    }
+
+    /**
+     * An image written to a staging file and not yet part of the store.
+     */
+    public record StagedImage(Path file, String sha256, long size, String mimeType, Integer width, Integer height) {
+
+        public String fileName() {
+            return sha256 + extension(mimeType);
+        }
+    }
+
+    private record Probe(String mimeType, Integer width, Integer height) {
+    }
+
+    /**
+     * Streams the image into a staging file, hashing it on the way. The mime type is taken from the image
+     * itself when it can be read, otherwise from declaredMimeType. The caller must hand the result to
+     * {@link #commit} or {@link #discard}.
+     */
+    public StagedImage stage(InputStream in, String declaredMimeType) throws IOException {
+        Path staging = directory.resolve("staging");
+        Files.createDirectories(staging);
+        Path temp = Files.createTempFile(staging, "ingest-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = copyLimited(in, out);
+            }
+            if (size == 0) {
+                throw new IOException("Image is empty");
+            }
+            Probe probe = probe(temp);
+            String mimeType = probe.mimeType() != null ? probe.mimeType() : normalize(declaredMimeType);
+            if (mimeType == null || !mimeType.startsWith("image/")) {
+                throw new IOException("Not an image: " + mimeType);
+            }
+            return new StagedImage(temp, HexFormat.of().formatHex(digest.digest()), size, mimeType, probe.width(), probe.height());
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+
+    /**
+     * Moves the staged file to its content address. Bytes that are already there are left as they are.
+     */
+    public void commit(StagedImage staged) throws IOException {
+        Path target = resolve(staged.fileName());
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // same bytes written concurrently
+        }
+    }
+
+    public void discard(StagedImage staged) {
+        try {
+            Files.deleteIfExists(staged.file());
+        } catch (IOException ex) {
+            log.warn("Could not delete staging file {}: {}", staged.file(), ex.getMessage());
+        }
+    }
+
+    public boolean isBlobName(String fileName) {
+        return fileName != null && BLOB_NAME.matcher(fileName).matches();
+    }
+
+    public Path resolve(String fileName) {
+        if (!isBlobName(fileName)) {
+            throw new IllegalArgumentException("Not a stored image name: " + fileName);
+        }
+        return directory.resolve(fileName.substring(0, 2)).resolve(fileName.substring(2, 4)).resolve(fileName);
+    }
+
+    /**
+     * Full URL the image is served under; every writer of image_url uses it so stored URLs have one shape.
+     */
+    public String serveUrl(String fileName) {
+        return serveUrlBase + fileName;
+    }
+
+    /**
+     * Deletes a pre-blob upload that sits flat in the upload directory ("<uuid>.png"). Anything else is ignored.
+     */
+    public void deleteLegacy(String fileName) {
+        if (fileName == null || isBlobName(fileName) || !LEGACY_NAME.matcher(fileName).matches()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(fileName));
+        } catch (IOException ex) {
+            log.warn("Could not delete legacy image file {}: {}", fileName, ex.getMessage());
+        }
+    }
+
+    public void delete(String fileName) {
+        try {
+            Files.deleteIfExists(resolve(fileName));
+        } catch (IOException ex) {
+            log.warn("Could not delete stored image {}: {}", fileName, ex.getMessage());
+        }
+    }
+
+    private long copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IOException("Image is larger than " + maxBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    /**
+     * Reads format and dimensions from the image header only, without decoding the pixels.
+     */
+    private Probe probe(Path file) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) {
+                return new Probe(null, null, null);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                String[] mimeTypes = reader.getOriginatingProvider().getMIMETypes();
+                return new Probe(mimeTypes != null && mimeTypes.length > 0 ? mimeTypes[0] : null,
+                        reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            log.debug("Could not read image header of {}: {}", file, ex.getMessage());
+            return new Probe(null, null, null);
+        }
+    }
+
+    private String normalize(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        int semicolon = mimeType.indexOf(';');
+        return (semicolon > -1 ? mimeType.substring(0, semicolon) : mimeType).trim().toLowerCase();
+    }
+
+    private static String extension(String mimeType) {
+        return switch (mimeType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> ".png";
+        };
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.back.postpilot.service.image;
 
+import com.back.postpilot.service.generation.Deadline;
 import lombok.Builder;
 import lombok.Data;
 
@@ -15,6 +16,7 @@ public class ImageGenerationRequest {
     private Integer height;
     private Long userId;
     private String sessionId;
+    private Deadline deadline; // overall budget of the originating request; null means no cap
 }
 
 
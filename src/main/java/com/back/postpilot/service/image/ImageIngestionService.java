@@ -0,0 +1,258 @@
+package com.back.postpilot.service.image;
+
+import com.back.postpilot.EnumTypeConstants.ImageStorageStatus;
+import com.back.postpilot.entity.ContentImage;
+import com.back.postpilot.entity.ImageBlob;
+import com.back.postpilot.repository.ContentImageRepository;
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies generated images into our own store after the turn is saved. Provider URLs (Azure, A4F) expire and
+ * A4F/Bytez may return multi-megabyte data: URLs, so every PENDING image is streamed into the content-addressed
+ * store ({@link ImageBlobService}), gets its size, mime type and dimensions recorded, and has its URL rewritten
+ * to our serve path. Runs every
+ * image.ingestion.poll-interval and right after a chat turn saves new images; the chat response never waits for it.
+ * An image that can't be fetched keeps its provider URL and is retried on a later poll, up to
+ * image.ingestion.max-attempts times. Downloads use their own client with connect/read timeouts and are abandoned
+ * after image.ingestion.image-timeout, so one hung URL can't stall the pass.
+ * The download can be slow, so the outcome is written with targeted updates of the storage columns on a row that
+ * is still PENDING, never by saving the copy loaded before the download; edits and deletes made meanwhile stand.
+ */
+@Slf4j
+@Service
+public class ImageIngestionService {
+
+    private final ContentImageRepository contentImageRepository;
+    private final ImageFileStore imageFileStore;
+    private final ImageBlobService imageBlobService;
+    private final RestTemplate restTemplate;
+    private final TaskScheduler taskScheduler;
+    private final GenerationTaskRunner generationTaskRunner;
+
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Duration imageTimeout;
+
+    private final AtomicBoolean ticking = new AtomicBoolean();
+    private final AtomicBoolean wanted = new AtomicBoolean();
+
+    public ImageIngestionService(ContentImageRepository contentImageRepository,
+                                 ImageFileStore imageFileStore,
+                                 ImageBlobService imageBlobService,
+                                 RestTemplateBuilder restTemplateBuilder,
+                                 TaskScheduler taskScheduler,
+                                 GenerationTaskRunner generationTaskRunner,
+                                 @Value("${image.ingestion.poll-interval:PT30S}") Duration pollInterval,
+                                 @Value("${image.ingestion.batch-size:50}") int batchSize,
+                                 @Value("${image.ingestion.parallelism:4}") int parallelism,
+                                 @Value("${image.ingestion.max-attempts:5}") int maxAttempts,
+                                 @Value("${image.ingestion.connect-timeout:PT10S}") Duration connectTimeout,
+                                 @Value("${image.ingestion.read-timeout:PT30S}") Duration readTimeout,
+                                 @Value("${image.ingestion.image-timeout:PT2M}") Duration imageTimeout) {
+        this.contentImageRepository = contentImageRepository;
+        this.imageFileStore = imageFileStore;
+        this.imageBlobService = imageBlobService;
+        // not the shared RestTemplate: that one has no timeouts and a stalled provider URL would hang the pass
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+        this.taskScheduler = taskScheduler;
+        this.generationTaskRunner = generationTaskRunner;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+        this.imageTimeout = imageTimeout;
+    }
+
+    @PostConstruct
+    public void startPolling() {
+        taskScheduler.scheduleWithFixedDelay(this::tick, pollInterval);
+    }
+
+    /**
+     * Starts a pass now instead of at the next poll, for images that were just saved.
+     */
+    public void wakeUp() {
+        taskScheduler.schedule(this::tick, Instant.now());
+    }
+
+    private void tick() {
+        wanted.set(true);
+        if (!ticking.compareAndSet(false, true)) {
+            // the running pass picks the new images up before it stops
+            return;
+        }
+        generationTaskRunner.submit(() -> {
+            try {
+                // images that fail in this pass stay behind the cursor until the next poll instead of being retried at once
+                long cursor = 0;
+                while (wanted.getAndSet(false)) {
+                    cursor = drain(cursor);
+                }
+            } catch (Exception ex) {
+                log.error("Image ingestion pass failed, retrying on the next poll", ex);
+            } finally {
+                ticking.set(false);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Ingests the next page of PENDING images after the given id and returns the last id it handled.
+     */
+    private long drain(long afterId) throws InterruptedException {
+        List<ContentImage> pending = contentImageRepository.findByStorageStatusAndIdGreaterThanOrderByIdAsc(
+                ImageStorageStatus.PENDING, afterId, PageRequest.of(0, batchSize));
+        for (int from = 0; from < pending.size(); from += parallelism) {
+            List<Future<Void>> running = new ArrayList<>();
+            for (ContentImage image : pending.subList(from, Math.min(from + parallelism, pending.size()))) {
+                running.add(generationTaskRunner.submit(() -> {
+                    ingest(image);
+                    return null;
+                }));
+            }
+            // backstop for work the download timeouts don't cover; the downloads themselves stop at imageTimeout
+            Deadline deadline = Deadline.after(imageTimeout.multipliedBy(2));
+            for (Future<Void> future : running) {
+                try {
+                    future.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ex) {
+                    future.cancel(true);
+                    log.warn("Image ingestion task did not finish within {}, abandoned it", imageTimeout.multipliedBy(2));
+                } catch (ExecutionException ex) {
+                    log.error("Could not save ingestion result", ex.getCause());
+                }
+            }
+        }
+        // a full page means there may be more waiting
+        if (pending.size() == batchSize) {
+            wanted.set(true);
+        }
+        return pending.isEmpty() ? afterId : pending.get(pending.size() - 1).getId();
+    }
+
+    private void ingest(ContentImage image) {
+        String url = image.getImageUrl();
+        ImageBlob blob;
+        try {
+            ImageFileStore.StagedImage staged = url.startsWith("data:") ? stageDataUrl(url) : download(url, image.getMimeType());
+            blob = imageBlobService.acquire(staged);
+        } catch (Exception ex) {
+            int attempts = (image.getStorageAttempts() != null ? image.getStorageAttempts() : 0) + 1;
+            if (attempts >= maxAttempts) {
+                log.warn("Giving up on storing image {} after {} attempts: {}", image.getId(), attempts, ex.getMessage());
+            } else {
+                log.info("Could not store image {} (attempt {}), retrying later: {}", image.getId(), attempts, ex.getMessage());
+            }
+            contentImageRepository.recordStorageAttempt(image.getId(), attempts,
+                    attempts >= maxAttempts ? ImageStorageStatus.FAILED : ImageStorageStatus.PENDING);
+            return;
+        }
+
+        int updated;
+        try {
+            updated = contentImageRepository.markStored(image.getId(), blob, imageFileStore.serveUrl(blob.getFileName()),
+                    String.valueOf(blob.getSize()), blob.getMimeType(), blob.getWidth(), blob.getHeight());
+        } catch (RuntimeException ex) {
+            imageBlobService.release(blob.getId());
+            throw ex;
+        }
+        if (updated == 0) {
+            // deleted or handled elsewhere while we were downloading
+            imageBlobService.release(blob.getId());
+            log.debug("Image {} is no longer pending, dropped its stored copy", image.getId());
+            return;
+        }
+        log.debug("Stored image {} as {} ({} bytes)", image.getId(), blob.getFileName(), blob.getSize());
+    }
+
+    private ImageFileStore.StagedImage download(String url, String declaredMimeType) throws IOException {
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+            throw new IOException("Unsupported image URL scheme");
+        }
+        Deadline deadline = Deadline.after(imageTimeout);
+        // URI.create keeps pre-signed query strings exactly as the provider encoded them
+        return restTemplate.execute(URI.create(url), HttpMethod.GET, null, response -> {
+            MediaType contentType = response.getHeaders().getContentType();
+            return imageFileStore.stage(new DeadlineInputStream(response.getBody(), deadline),
+                    contentType != null ? contentType.toString() : declaredMimeType);
+        });
+    }
+
+    private ImageFileStore.StagedImage stageDataUrl(String url) throws IOException {
+        // data:image/png;base64,<payload>
+        int comma = url.indexOf(',');
+        String header = comma > -1 ? url.substring(5, comma) : "";
+        if (!header.endsWith(";base64")) {
+            throw new IOException("Unsupported data URL encoding");
+        }
+        InputStream payload = new ByteArrayInputStream(url.substring(comma + 1).getBytes(StandardCharsets.US_ASCII));
+        try (InputStream decoded = Base64.getMimeDecoder().wrap(payload)) {
+            return imageFileStore.stage(decoded, header.substring(0, header.length() - ";base64".length()));
+        }
+    }
+
+    /**
+     * The read timeout only bounds each read, so a server trickling bytes could keep a download going forever.
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+
+        private final Deadline deadline;
+
+        DeadlineInputStream(InputStream in, Deadline deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return super.read(b, off, len);
+        }
+
+        private void checkDeadline() throws IOException {
+            if (deadline.isExpired()) {
+                throw new IOException("Image download did not finish in time");
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.back.postpilot.service.image;
+
+import com.back.postpilot.service.generation.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates an image across the image providers, in the order {@link ImageProviderRouter} picks for the
+ * request. The first provider starts right away; if it hasn't answered within its hedge delay (configured,
+ * or else its observed p90 latency) the next one starts alongside it, and an empty result or failure starts
+ * the next one immediately. The first non-empty result wins and the rest are cancelled. With
+ * image.racing.enabled=false providers are tried strictly one after another. Nothing outlives the
+ * request's deadline.
+ */
+@Slf4j
+@Component
+public class ImageProviderRacer {
+
+    private final ImageServiceFactory imageServiceFactory;
+    private final ImageProviderRouter imageProviderRouter;
+    private final ExecutorService generationExecutor;
+    private final boolean racingEnabled;
+    private final Duration defaultHedgeDelay;
+    private final Duration minHedgeDelay;
+    private final Map<String, Duration> hedgeDelays = new HashMap<>();
+
+    public ImageProviderRacer(ImageServiceFactory imageServiceFactory,
+                              ImageProviderRouter imageProviderRouter,
+                              @Qualifier("generationExecutor") ExecutorService generationExecutor,
+                              @Value("${image.racing.enabled:true}") boolean racingEnabled,
+                              @Value("${image.racing.hedge-delay:PT20S}") Duration defaultHedgeDelay,
+                              @Value("${image.racing.min-hedge-delay:PT3S}") Duration minHedgeDelay,
+                              @Value("${image.racing.hedge-delays:}") String hedgeDelays) {
+        this.imageServiceFactory = imageServiceFactory;
+        this.imageProviderRouter = imageProviderRouter;
+        this.generationExecutor = generationExecutor;
+        this.racingEnabled = racingEnabled;
+        this.defaultHedgeDelay = defaultHedgeDelay;
+        this.minHedgeDelay = minHedgeDelay;
+        // "azureopenai=PT25S,a4f=PT10S": how long to wait on that provider before starting the next one
+        for (String entry : hedgeDelays.split(",")) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length == 2 && !parts[0].isBlank()) {
+                this.hedgeDelays.put(parts[0].trim(), Duration.parse(parts[1].trim()));
+            }
+        }
+    }
+
+    public ImageGenerationResult generate(ImageGenerationRequest request) {
+        return generate(request, imageProviderRouter.order());
+    }
+
+    public ImageGenerationResult generate(ImageGenerationRequest request, List<String> providers) {
+        Deadline deadline = request.getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            log.warn("Skipping image generation, request deadline {} has passed", deadline.expiresAt());
+            return empty();
+        }
+
+        CompletionService<ImageGenerationResult> completion = new ExecutorCompletionService<>(generationExecutor);
+        Map<Future<ImageGenerationResult>, String> running = new LinkedHashMap<>();
+        int next = 0;
+        running.put(completion.submit(() -> attempt(providers.get(0), request)), providers.get(0));
+        next++;
+
+        try {
+            while (!running.isEmpty()) {
+                long budgetMillis = deadline != null ? deadline.remaining().toMillis() : Long.MAX_VALUE;
+                Future<ImageGenerationResult> done;
+                if (racingEnabled && next < providers.size()) {
+                    String latest = providers.get(next - 1);
+                    long hedgeMillis = hedgeDelay(latest).toMillis();
+                    done = completion.poll(Math.min(hedgeMillis, budgetMillis), TimeUnit.MILLISECONDS);
+                    if (done == null && budgetMillis <= hedgeMillis) {
+                        log.warn("Image generation abandoned at the request deadline");
+                        return empty();
+                    }
+                    if (done == null) {
+                        String hedge = providers.get(next++);
+                        log.info("{} has not answered within {}, racing {} alongside it", latest, hedgeDelay(latest), hedge);
+                        running.put(completion.submit(() -> attempt(hedge, request)), hedge);
+                        continue;
+                    }
+                } else {
+                    done = completion.poll(budgetMillis, TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        log.warn("Image generation abandoned at the request deadline");
+                        return empty();
+                    }
+                }
+
+                String provider = running.remove(done);
+                try {
+                    ImageGenerationResult result = done.get();
+                    if (result != null && result.getImages() != null && !result.getImages().isEmpty()) {
+                        return result;
+                    }
+                    log.warn("{} returned no images", provider);
+                } catch (ExecutionException e) {
+                    log.warn("{} image generation failed: {}", provider, e.getCause().getMessage());
+                }
+                // a provider that gave up is replaced right away, even while others are still running
+                if (next < providers.size()) {
+                    String failover = providers.get(next++);
+                    running.put(completion.submit(() -> attempt(failover, request)), failover);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.forEach((future, provider) -> {
+                future.cancel(true);
+                imageProviderRouter.recordCancelled(provider);
+            });
+        }
+        return empty();
+    }
+
+    /**
+     * One provider call, timed and reported to the router. Calls interrupted because they lost the race
+     * are reported as cancelled by the racer instead.
+     */
+    private ImageGenerationResult attempt(String provider, ImageGenerationRequest request) {
+        long start = System.nanoTime();
+        try {
+            ImageGenerationResult result = imageServiceFactory.getService(provider).generate(request);
+            if (!Thread.currentThread().isInterrupted()) {
+                if (result != null && result.getImages() != null && !result.getImages().isEmpty()) {
+                    imageProviderRouter.recordSuccess(provider, Duration.ofNanos(System.nanoTime() - start));
+                } else {
+                    imageProviderRouter.recordFailure(provider);
+                }
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            if (!Thread.currentThread().isInterrupted()) {
+                imageProviderRouter.recordFailure(provider);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Configured per-provider delay if there is one, otherwise the provider's learned p90 latency.
+     */
+    private Duration hedgeDelay(String provider) {
+        Duration configured = hedgeDelays.get(provider);
+        if (configured != null) {
+            return configured;
+        }
+        Duration learned = imageProviderRouter.latencyPercentile(provider, 0.9, defaultHedgeDelay);
+        return learned.compareTo(minHedgeDelay) < 0 ? minHedgeDelay : learned;
+    }
+
+    private ImageGenerationResult empty() {
+        return ImageGenerationResult.builder().images(List.of()).build();
+    }
+}
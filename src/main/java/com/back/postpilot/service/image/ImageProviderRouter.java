@@ -0,0 +1,110 @@
+package com.back.postpilot.service.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the image provider order per request from live stats. Each provider is scored by its p90 latency
+ * divided by its success rate over the last image.routing.window attempts (lower is better); providers with
+ * fewer than image.routing.min-samples attempts keep their configured position. A share of requests
+ * (image.routing.exploration) moves a random other provider to the front, so a provider that was failing
+ * gets traffic again and can win its place back once it recovers.
+ */
+@Slf4j
+@Component
+public class ImageProviderRouter {
+
+    private final List<String> configuredOrder;
+    private final Map<String, ImageProviderStats> stats = new ConcurrentHashMap<>();
+    private final int window;
+    private final int minSamples;
+    private final double exploration;
+    private final Duration unknownLatency;
+
+    public ImageProviderRouter(@Value("${image.providers.order:azureopenai,a4f,bytez}") String providerOrder,
+                               @Value("${image.routing.window:50}") int window,
+                               @Value("${image.routing.min-samples:5}") int minSamples,
+                               @Value("${image.routing.exploration:0.05}") double exploration,
+                               @Value("${image.racing.hedge-delay:PT20S}") Duration unknownLatency) {
+        this.configuredOrder = Arrays.stream(providerOrder.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.window = window;
+        this.minSamples = minSamples;
+        this.exploration = exploration;
+        this.unknownLatency = unknownLatency;
+    }
+
+    public List<String> order() {
+        List<String> ranked = new ArrayList<>(configuredOrder);
+        // stable sort: providers without enough samples share one rank and keep the configured order among themselves
+        ranked.sort(Comparator.comparingDouble(this::score));
+        if (ranked.size() > 1 && ThreadLocalRandom.current().nextDouble() < exploration) {
+            String explored = ranked.remove(1 + ThreadLocalRandom.current().nextInt(ranked.size() - 1));
+            ranked.add(0, explored);
+            log.debug("Exploring image provider {} first", explored);
+        }
+        return ranked;
+    }
+
+    public void recordSuccess(String provider, Duration latency) {
+        statsFor(provider).recordSuccess(latency);
+    }
+
+    public void recordFailure(String provider) {
+        statsFor(provider).recordFailure();
+    }
+
+    public void recordCancelled(String provider) {
+        statsFor(provider).recordCancelled();
+    }
+
+    /**
+     * Learned latency percentile of the provider, or the fallback until it has enough samples.
+     */
+    public Duration latencyPercentile(String provider, double percentile, Duration fallback) {
+        ImageProviderStats providerStats = statsFor(provider);
+        return providerStats.samples() < minSamples ? fallback : providerStats.latencyPercentile(percentile, fallback);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("configuredOrder", configuredOrder);
+        result.put("currentOrder", configuredOrder.stream().sorted(Comparator.comparingDouble(this::score)).toList());
+        result.put("exploration", exploration);
+        Map<String, Object> providers = new LinkedHashMap<>();
+        for (String provider : configuredOrder) {
+            Map<String, Object> providerStats = statsFor(provider).stats(unknownLatency);
+            providerStats.put("score", Math.round(score(provider)));
+            providers.put(provider, providerStats);
+        }
+        result.put("providers", providers);
+        return result;
+    }
+
+    /**
+     * Expected cost of trying this provider: p90 latency inflated by its failure rate. Providers without
+     * enough samples score as if they had the default latency and never failed.
+     */
+    private double score(String provider) {
+        ImageProviderStats providerStats = statsFor(provider);
+        if (providerStats.samples() < minSamples) {
+            return unknownLatency.toMillis();
+        }
+        double latency = providerStats.latencyPercentile(0.9, unknownLatency).toMillis();
+        return latency / Math.max(providerStats.successRate(), 0.05);
+    }
+
+    private ImageProviderStats statsFor(String provider) {
+        return stats.computeIfAbsent(provider, key -> new ImageProviderStats(window));
+    }
+}
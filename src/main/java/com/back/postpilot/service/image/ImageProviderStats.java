@@ -0,0 +1,84 @@
+package com.back.postpilot.service.image;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rolling window of one image provider's recent attempts: outcome of each, latency of the successful ones.
+ * Attempts cancelled because another provider won the race say nothing about the provider and are only counted.
+ */
+class ImageProviderStats {
+
+    private final boolean[] outcomes;
+    private final long[] latencies;
+    private int outcomeCount;
+    private int outcomeNext;
+    private int latencyCount;
+    private int latencyNext;
+    private long cancelled;
+
+    ImageProviderStats(int window) {
+        this.outcomes = new boolean[window];
+        this.latencies = new long[window];
+    }
+
+    synchronized void recordSuccess(Duration latency) {
+        record(true);
+        latencies[latencyNext] = latency.toMillis();
+        latencyNext = (latencyNext + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    synchronized void recordFailure() {
+        record(false);
+    }
+
+    synchronized void recordCancelled() {
+        cancelled++;
+    }
+
+    synchronized int samples() {
+        return outcomeCount;
+    }
+
+    synchronized double successRate() {
+        if (outcomeCount == 0) {
+            return 1.0;
+        }
+        int successes = 0;
+        for (int i = 0; i < outcomeCount; i++) {
+            if (outcomes[i]) {
+                successes++;
+            }
+        }
+        return (double) successes / outcomeCount;
+    }
+
+    synchronized Duration latencyPercentile(double percentile, Duration fallback) {
+        if (latencyCount == 0) {
+            return fallback;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * latencyCount) - 1;
+        return Duration.ofMillis(sorted[Math.max(0, Math.min(index, latencyCount - 1))]);
+    }
+
+    synchronized Map<String, Object> stats(Duration fallback) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("samples", outcomeCount);
+        stats.put("successRate", Math.round(successRate() * 1000) / 1000.0);
+        stats.put("p50Ms", latencyPercentile(0.5, fallback).toMillis());
+        stats.put("p90Ms", latencyPercentile(0.9, fallback).toMillis());
+        stats.put("cancelled", cancelled);
+        return stats;
+    }
+
+    private void record(boolean success) {
+        outcomes[outcomeNext] = success;
+        outcomeNext = (outcomeNext + 1) % outcomes.length;
+        outcomeCount = Math.min(outcomeCount + 1, outcomes.length);
+    }
+}
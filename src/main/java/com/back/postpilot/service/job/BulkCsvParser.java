@@ -0,0 +1,129 @@
+package com.back.postpilot.service.job;
+
+import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.EnumTypeConstants.GenerationMode;
+import com.back.postpilot.domain.ContentGenerationRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads bulk generation requests from CSV. The first row is a header naming the request fields
+ * (prompt is required; platform, contentType, model, tone, targetAudience, context, generationMode,
+ * maxCharacters and targetPlatforms are optional, the latter separated by ';'; rows without a model get the
+ * bulk default model when the batch is submitted). Fields may be quoted,
+ * with "" for a literal quote and line breaks allowed inside quotes.
+ */
+public final class BulkCsvParser {
+
+    private BulkCsvParser() {
+    }
+
+    public static List<ContentGenerationRequest> parse(Reader reader, Long userId) throws IOException {
+        List<List<String>> rows = readRows(new BufferedReader(reader));
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("prompt")) {
+            throw new IllegalArgumentException("CSV header must contain a 'prompt' column");
+        }
+
+        List<ContentGenerationRequest> requests = new ArrayList<>();
+        for (int line = 1; line < rows.size(); line++) {
+            List<String> row = rows.get(line);
+            if (row.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            String prompt = value(row, columns, "prompt");
+            if (prompt == null) {
+                throw new IllegalArgumentException("Row " + (line + 1) + " has no prompt");
+            }
+            try {
+                String platform = value(row, columns, "platform");
+                String contentType = value(row, columns, "contenttype");
+                String generationMode = value(row, columns, "generationmode");
+                String maxCharacters = value(row, columns, "maxcharacters");
+                String targetPlatforms = value(row, columns, "targetplatforms");
+                requests.add(ContentGenerationRequest.builder()
+                        .userId(userId)
+                        .prompt(prompt)
+                        .platform(platform != null ? platform : "default")
+                        .contentType(contentType != null ? ContentType.valueOf(contentType.toUpperCase()) : ContentType.POST)
+                        .model(value(row, columns, "model"))
+                        .tone(value(row, columns, "tone"))
+                        .targetAudience(value(row, columns, "targetaudience"))
+                        .context(value(row, columns, "context"))
+                        .generationMode(generationMode != null ? GenerationMode.valueOf(generationMode.toUpperCase()) : null)
+                        .maxCharacters(maxCharacters != null ? Integer.parseInt(maxCharacters) : 0)
+                        .targetPlatforms(targetPlatforms != null
+                                ? Arrays.stream(targetPlatforms.split(";")).map(String::trim).filter(p -> !p.isEmpty()).toList()
+                                : null)
+                        .build());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Row " + (line + 1) + ": " + ex.getMessage(), ex);
+            }
+        }
+        return requests;
+    }
+
+    private static String value(List<String> row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<List<String>> readRows(BufferedReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (field.length() > 0 || !row.isEmpty()) {
+            row.add(field.toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+}
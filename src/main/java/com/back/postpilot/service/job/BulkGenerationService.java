@@ -0,0 +1,381 @@
+package com.back.postpilot.service.job;
+
+import com.back.postpilot.DTO.ChatMessageDTO;
+import com.back.postpilot.DTO.GenerationBatchDTO;
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.EnumTypeConstants.BatchExecutionMode;
+import com.back.postpilot.EnumTypeConstants.GenerationBatchStatus;
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.GenerationBatch;
+import com.back.postpilot.entity.GenerationJob;
+import com.back.postpilot.notification.PushNotification;
+import com.back.postpilot.repository.GenerationBatchRepository;
+import com.back.postpilot.repository.GenerationJobRepository;
+import com.back.postpilot.service.ChatService;
+import com.back.postpilot.service.generation.GenerationTaskRunner;
+import com.back.postpilot.service.llm.AdaptiveConcurrencyLimiter;
+import com.back.postpilot.service.llm.ProviderOverloadedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs many generation requests as one batch. Items are stored as {@link GenerationJob} rows and processed
+ * in chunks; each item's result is saved as soon as it finishes, so progress survives a restart and a retry
+ * only re-runs failed items.
+ * <p>
+ * Provider calls still go through the per-provider concurrency limiters; on top of that the batch adapts its
+ * own parallelism (halved when a chunk hits provider push-back, grown by one after a clean chunk) and puts
+ * overloaded items back in the queue instead of failing them, so a large batch backs off rather than
+ * crowding out interactive requests.
+ */
+@Slf4j
+@Service
+public class BulkGenerationService {
+
+    private final GenerationBatchRepository generationBatchRepository;
+    private final GenerationJobRepository generationJobRepository;
+    private final GenerationJobService generationJobService;
+    private final ChatService chatService;
+    private final GenerationTaskRunner generationTaskRunner;
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final int maxParallelism;
+    private final int maxItems;
+    private final int maxAttempts;
+    private final Duration overloadBackoff;
+    private final String defaultModel;
+
+    // batches with a driver running in this instance, so a retry during a run doesn't start a second driver
+    private final Set<String> activeBatches = ConcurrentHashMap.newKeySet();
+
+    public BulkGenerationService(GenerationBatchRepository generationBatchRepository,
+                                 GenerationJobRepository generationJobRepository,
+                                 GenerationJobService generationJobService,
+                                 ChatService chatService,
+                                 GenerationTaskRunner generationTaskRunner,
+                                 ObjectMapper objectMapper,
+                                 @Value("${generation.bulk.chunk-size:10}") int chunkSize,
+                                 @Value("${generation.bulk.max-parallelism:4}") int maxParallelism,
+                                 @Value("${generation.bulk.max-items:500}") int maxItems,
+                                 @Value("${generation.bulk.max-attempts:3}") int maxAttempts,
+                                 @Value("${generation.bulk.overload-backoff:PT30S}") Duration overloadBackoff,
+                                 @Value("${generation.bulk.default-model:gemini}") String defaultModel) {
+        this.generationBatchRepository = generationBatchRepository;
+        this.generationJobRepository = generationJobRepository;
+        this.generationJobService = generationJobService;
+        this.chatService = chatService;
+        this.generationTaskRunner = generationTaskRunner;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxParallelism = maxParallelism;
+        this.maxItems = maxItems;
+        this.maxAttempts = maxAttempts;
+        this.overloadBackoff = overloadBackoff;
+        this.defaultModel = defaultModel;
+    }
+
+    /**
+     * Queues the requests as one batch. INTERACTIVE batches start right away; OFF_PEAK batches are picked up
+     * by {@link com.back.postpilot.service.batch.OffPeakBatchService} and sent to the provider batch API.
+     * Items without a model use {@code generation.bulk.default-model}; an unknown model rejects the whole batch.
+     */
+    public GenerationBatchDTO submit(List<ContentGenerationRequest> requests, BatchExecutionMode mode) throws JsonProcessingException {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("A bulk request needs at least one item");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("A bulk request can have at most " + maxItems + " items");
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            ContentGenerationRequest request = requests.get(i);
+            if (request.getModel() == null || request.getModel().isBlank()) {
+                request.setModel(defaultModel);
+            }
+            try {
+                AssitanceModels.fromString(request.getModel());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Item " + (i + 1) + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        GenerationBatch batch = GenerationBatch.builder()
+                .batchId(UUID.randomUUID().toString())
+                .userId(requests.get(0).getUserId())
+                .status(GenerationBatchStatus.QUEUED)
+                .executionMode(mode)
+                .totalItems(requests.size())
+                .createdAt(LocalDateTime.now())
+                .build();
+        batch = generationBatchRepository.save(batch);
+
+        List<GenerationJob> items = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ContentGenerationRequest request = requests.get(i);
+            items.add(GenerationJob.builder()
+                    .jobId(UUID.randomUUID().toString())
+                    .batchId(batch.getBatchId())
+                    .batchIndex(i)
+                    .sessionId(request.getSessionId())
+                    .userId(request.getUserId())
+                    .status(GenerationJobStatus.QUEUED)
+                    .requestPayload(objectMapper.writeValueAsString(request))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        generationJobRepository.saveAll(items);
+        log.info("Bulk batch {} queued with {} items ({})", batch.getBatchId(), items.size(), mode);
+
+        if (mode == BatchExecutionMode.INTERACTIVE) {
+            dispatch(batch.getBatchId());
+        }
+        return toDTO(batch);
+    }
+
+    /**
+     * Returns the batch if it belongs to {@code userId}; someone else's batch looks the same as a missing one.
+     */
+    public Optional<GenerationBatchDTO> getBatch(String batchId, Long userId) {
+        return findOwned(batchId, userId).map(this::toDTO);
+    }
+
+    /**
+     * Puts the failed items of a batch owned by {@code userId} back in the queue; completed items keep their results.
+     */
+    public Optional<GenerationBatchDTO> retryFailed(String batchId, Long userId) {
+        Optional<GenerationBatch> found = findOwned(batchId, userId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        List<GenerationJob> failed = generationJobRepository.findByBatchIdAndStatusIn(batchId, List.of(GenerationJobStatus.FAILED));
+        for (GenerationJob item : failed) {
+            item.setStatus(GenerationJobStatus.QUEUED);
+            item.setAttempts(0);
+            item.setErrorMessage(null);
+            item.setCompletedAt(null);
+        }
+        generationJobRepository.saveAll(failed);
+
+        GenerationBatch batch = found.get();
+        if (!failed.isEmpty()) {
+            // a running batch picks the re-queued items up itself
+            if (batch.getStatus() != GenerationBatchStatus.RUNNING) {
+                batch.setStatus(GenerationBatchStatus.QUEUED);
+                batch.setCompletedAt(null);
+                batch = generationBatchRepository.save(batch);
+            }
+            log.info("Bulk batch {}: {} failed items re-queued", batchId, failed.size());
+            if (batch.getExecutionMode() == BatchExecutionMode.INTERACTIVE) {
+                dispatch(batchId);
+            }
+        }
+        return Optional.of(toDTO(batch));
+    }
+
+    private Optional<GenerationBatch> findOwned(String batchId, Long userId) {
+        return generationBatchRepository.findByBatchId(batchId)
+                .filter(batch -> batch.getUserId() != null && batch.getUserId().equals(userId));
+    }
+
+    private void dispatch(String batchId) {
+        if (!activeBatches.add(batchId)) {
+            // the running driver picks up newly queued items before it finishes
+            return;
+        }
+        generationTaskRunner.submit(() -> {
+            try {
+                run(batchId);
+            } catch (Exception ex) {
+                log.error("Bulk batch {} stopped unexpectedly", batchId, ex);
+            } finally {
+                activeBatches.remove(batchId);
+            }
+            // items re-queued by a retry while this driver was finishing
+            if (generationJobRepository.countByBatchIdAndStatus(batchId, GenerationJobStatus.QUEUED) > 0) {
+                dispatch(batchId);
+            }
+            return null;
+        });
+    }
+
+    private void run(String batchId) throws InterruptedException {
+        GenerationBatch batch = generationBatchRepository.findByBatchId(batchId).orElse(null);
+        if (batch == null) {
+            return;
+        }
+        batch.setStatus(GenerationBatchStatus.RUNNING);
+        if (batch.getStartedAt() == null) {
+            batch.setStartedAt(LocalDateTime.now());
+        }
+        batch = generationBatchRepository.save(batch);
+
+        int parallelism = maxParallelism;
+        List<GenerationJob> chunk;
+        while (!(chunk = generationJobRepository.findByBatchIdAndStatusOrderByBatchIndexAsc(
+                batchId, GenerationJobStatus.QUEUED, PageRequest.of(0, chunkSize))).isEmpty()) {
+            boolean overloaded = runChunk(chunk, parallelism);
+            if (overloaded) {
+                parallelism = Math.max(1, parallelism / 2);
+                log.warn("Bulk batch {} hit provider push-back, parallelism reduced to {}", batchId, parallelism);
+                Thread.sleep(overloadBackoff.toMillis());
+            } else {
+                parallelism = Math.min(maxParallelism, parallelism + 1);
+            }
+            notifyProgress(batch);
+        }
+
+        boolean anyFailed = generationJobRepository.countByBatchIdAndStatus(batchId, GenerationJobStatus.FAILED) > 0;
+        batch.setStatus(anyFailed ? GenerationBatchStatus.COMPLETED_WITH_ERRORS : GenerationBatchStatus.COMPLETED);
+        batch.setCompletedAt(LocalDateTime.now());
+        batch = generationBatchRepository.save(batch);
+        log.info("Bulk batch {} finished with status {}", batchId, batch.getStatus());
+        notifyProgress(batch);
+    }
+
+    /**
+     * Runs one chunk with at most {@code parallelism} items in flight and waits for all of them.
+     * Returns whether any item was pushed back by its provider.
+     */
+    private boolean runChunk(List<GenerationJob> chunk, int parallelism) throws InterruptedException {
+        Semaphore slots = new Semaphore(parallelism);
+        List<Future<Boolean>> running = new ArrayList<>();
+        for (GenerationJob item : chunk) {
+            slots.acquire();
+            running.add(generationTaskRunner.submit(() -> {
+                try {
+                    return runItem(item);
+                } finally {
+                    slots.release();
+                }
+            }));
+        }
+        boolean overloaded = false;
+        for (Future<Boolean> item : running) {
+            try {
+                overloaded |= item.get();
+            } catch (ExecutionException ex) {
+                log.error("Bulk item failed outside its own error handling", ex.getCause());
+            }
+        }
+        return overloaded;
+    }
+
+    /**
+     * Generates one item and saves its outcome. Returns true if the provider pushed back and the item was re-queued.
+     */
+    private boolean runItem(GenerationJob item) {
+        item.setStatus(GenerationJobStatus.RUNNING);
+        item.setStartedAt(LocalDateTime.now());
+        item.setAttempts(item.getAttempts() + 1);
+        item = generationJobRepository.save(item);
+
+        try {
+            ContentGenerationRequest request = objectMapper.readValue(item.getRequestPayload(), ContentGenerationRequest.class);
+            ChatMessageDTO response = chatService.getResponse(request);
+
+            item.setSessionId(response.getSessionId());
+            item.setResultPayload(objectMapper.writeValueAsString(response));
+            item.setErrorMessage(null);
+            item.setStatus(GenerationJobStatus.COMPLETED);
+            item.setCompletedAt(LocalDateTime.now());
+            generationJobRepository.save(item);
+            return false;
+        } catch (Exception ex) {
+            boolean overload = ex instanceof ProviderOverloadedException || AdaptiveConcurrencyLimiter.isOverload(ex);
+            item.setErrorMessage(ex.getMessage());
+            if (overload && item.getAttempts() < maxAttempts) {
+                log.warn("Bulk item {} of batch {} was pushed back by its provider, re-queued", item.getBatchIndex(), item.getBatchId());
+                item.setStatus(GenerationJobStatus.QUEUED);
+            } else {
+                log.error("Bulk item {} of batch {} failed", item.getBatchIndex(), item.getBatchId(), ex);
+                item.setStatus(GenerationJobStatus.FAILED);
+                item.setCompletedAt(LocalDateTime.now());
+            }
+            generationJobRepository.save(item);
+            return overload;
+        }
+    }
+
+    private void notifyProgress(GenerationBatch batch) {
+        if (batch.getUserId() == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of(
+                    "batchId", batch.getBatchId(),
+                    "status", batch.getStatus(),
+                    "total", batch.getTotalItems(),
+                    "completed", generationJobRepository.countByBatchIdAndStatus(batch.getBatchId(), GenerationJobStatus.COMPLETED),
+                    "failed", generationJobRepository.countByBatchIdAndStatus(batch.getBatchId(), GenerationJobStatus.FAILED)));
+            PushNotification.sendEvent(batch.getUserId().toString(), "generation-batch", payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize progress event for batch {}", batch.getBatchId(), e);
+        }
+    }
+
+    /**
+     * Resumes batches that were queued or running when the application stopped. Items that were mid-flight are
+     * marked FAILED rather than re-run: their user message (and maybe the reply) may already be saved, so running
+     * them again would duplicate the turn. The client can re-run them with a retry.
+     */
+    @PostConstruct
+    public void recoverBatches() {
+        // off-peak batches are tracked by their provider batch and resumed by the off-peak poller
+        List<GenerationBatch> pending = generationBatchRepository.findByExecutionModeAndStatusInOrderByCreatedAtAsc(
+                BatchExecutionMode.INTERACTIVE, List.of(GenerationBatchStatus.QUEUED, GenerationBatchStatus.RUNNING));
+        for (GenerationBatch batch : pending) {
+            List<GenerationJob> interrupted = generationJobRepository.findByBatchIdAndStatusIn(
+                    batch.getBatchId(), List.of(GenerationJobStatus.RUNNING));
+            for (GenerationJob item : interrupted) {
+                item.setStatus(GenerationJobStatus.FAILED);
+                item.setErrorMessage("Interrupted by a restart; retry the batch to run it again");
+                item.setCompletedAt(LocalDateTime.now());
+            }
+            generationJobRepository.saveAll(interrupted);
+            dispatch(batch.getBatchId());
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} pending bulk batches", pending.size());
+        }
+    }
+
+    private GenerationBatchDTO toDTO(GenerationBatch batch) {
+        List<GenerationJob> items = generationJobRepository.findByBatchIdOrderByBatchIndexAsc(batch.getBatchId());
+        return GenerationBatchDTO.builder()
+                .batchId(batch.getBatchId())
+                .status(batch.getStatus())
+                .executionMode(batch.getExecutionMode())
+                .total(batch.getTotalItems())
+                .queued(countItems(items, GenerationJobStatus.QUEUED))
+                .running(countItems(items, GenerationJobStatus.RUNNING))
+                .completed(countItems(items, GenerationJobStatus.COMPLETED))
+                .failed(countItems(items, GenerationJobStatus.FAILED))
+                .items(items.stream().map(generationJobService::toDTO).toList())
+                .createdAt(batch.getCreatedAt())
+                .completedAt(batch.getCompletedAt())
+                .build();
+    }
+
+    private long countItems(List<GenerationJob> items, GenerationJobStatus status) {
+        return items.stream().filter(item -> item.getStatus() == status).count();
+    }
+}
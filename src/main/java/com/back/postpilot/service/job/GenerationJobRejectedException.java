@@ -0,0 +1,8 @@
+package com.back.postpilot.service.job;
+
+public class GenerationJobRejectedException extends RuntimeException {
+
+    public GenerationJobRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,187 @@
+package com.back.postpilot.service.job;
+
+import com.back.postpilot.DTO.ChatMessageDTO;
+import com.back.postpilot.DTO.GenerationJobDTO;
+import com.back.postpilot.EnumTypeConstants.GenerationJobStatus;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.entity.GenerationJob;
+import com.back.postpilot.notification.PushNotification;
+import com.back.postpilot.repository.GenerationJobRepository;
+import com.back.postpilot.service.ChatPersistenceService;
+import com.back.postpilot.service.ChatService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Runs /chat/assistant requests in the background. A job is persisted as QUEUED, executed on the
+ * bounded generation-job pool, and its outcome is stored on the job row and pushed to the user's
+ * notification stream as a "generation-job" event.
+ */
+@Slf4j
+@Service
+public class GenerationJobService {
+
+    private final GenerationJobRepository generationJobRepository;
+    private final ChatPersistenceService chatPersistenceService;
+    private final ChatService chatService;
+    private final ThreadPoolTaskExecutor generationJobExecutor;
+    private final ObjectMapper objectMapper;
+
+    public GenerationJobService(GenerationJobRepository generationJobRepository,
+                                ChatPersistenceService chatPersistenceService,
+                                ChatService chatService,
+                                @Qualifier("generationJobExecutor") ThreadPoolTaskExecutor generationJobExecutor,
+                                ObjectMapper objectMapper) {
+        this.generationJobRepository = generationJobRepository;
+        this.chatPersistenceService = chatPersistenceService;
+        this.chatService = chatService;
+        this.generationJobExecutor = generationJobExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    public GenerationJobDTO submit(ContentGenerationRequest request) throws JsonProcessingException {
+        // create the session up front so the job row sits next to it and the run reuses it
+        ChatSession session = chatPersistenceService.findOrCreateSession(request);
+        request.setSessionId(session.getSessionId());
+
+        GenerationJob job = GenerationJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .chatSession(session)
+                .sessionId(session.getSessionId())
+                .userId(request.getUserId())
+                .status(GenerationJobStatus.QUEUED)
+                .requestPayload(objectMapper.writeValueAsString(request))
+                .createdAt(LocalDateTime.now())
+                .build();
+        job = generationJobRepository.save(job);
+        dispatch(job);
+        return toDTO(job);
+    }
+
+    /**
+     * Returns the job if it belongs to {@code userId}; someone else's job looks the same as a missing one.
+     */
+    public Optional<GenerationJobDTO> getJob(String jobId, Long userId) {
+        return generationJobRepository.findByJobId(jobId)
+                .filter(job -> job.getUserId() != null && job.getUserId().equals(userId))
+                .map(this::toDTO);
+    }
+
+    private void dispatch(GenerationJob job) {
+        String jobId = job.getJobId();
+        try {
+            generationJobExecutor.execute(() -> run(jobId));
+            log.debug("Generation job {} queued", jobId);
+        } catch (TaskRejectedException ex) {
+            markFailed(job, "Generation queue is full, please retry later");
+            throw new GenerationJobRejectedException("Generation queue is full", ex);
+        }
+    }
+
+    private void run(String jobId) {
+        GenerationJob job = generationJobRepository.findByJobId(jobId).orElse(null);
+        if (job == null || job.getStatus() != GenerationJobStatus.QUEUED) {
+            return;
+        }
+        job.setStatus(GenerationJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setAttempts(job.getAttempts() + 1);
+        job = generationJobRepository.save(job);
+
+        try {
+            ContentGenerationRequest request = objectMapper.readValue(job.getRequestPayload(), ContentGenerationRequest.class);
+            ChatMessageDTO response = chatService.getResponse(request);
+
+            job.setResultPayload(objectMapper.writeValueAsString(response));
+            job.setStatus(GenerationJobStatus.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            job = generationJobRepository.save(job);
+            log.info("Generation job {} completed", jobId);
+        } catch (Exception ex) {
+            log.error("Generation job {} failed", jobId, ex);
+            job = markFailed(job, ex.getMessage());
+        }
+        notifyUser(job);
+    }
+
+    private GenerationJob markFailed(GenerationJob job, String message) {
+        job.setStatus(GenerationJobStatus.FAILED);
+        job.setErrorMessage(message);
+        job.setCompletedAt(LocalDateTime.now());
+        return generationJobRepository.save(job);
+    }
+
+    private void notifyUser(GenerationJob job) {
+        if (job.getUserId() == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of(
+                    "jobId", job.getJobId(),
+                    "sessionId", job.getSessionId(),
+                    "status", job.getStatus()));
+            PushNotification.sendEvent(job.getUserId().toString(), "generation-job", payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize completion event for job {}", job.getJobId(), e);
+        }
+    }
+
+    /**
+     * Re-queues jobs that were still queued when the application stopped. Jobs that were mid-flight are marked
+     * FAILED instead: their user message (and maybe the reply) may already be saved, so replaying them would
+     * duplicate the turn. The client sees the failure and can send the prompt again.
+     */
+    @PostConstruct
+    public void recoverJobs() {
+        // bulk items are recovered by BulkGenerationService with the rest of their batch
+        List<GenerationJob> pending = generationJobRepository.findByBatchIdIsNullAndStatusInOrderByCreatedAtAsc(
+                List.of(GenerationJobStatus.QUEUED, GenerationJobStatus.RUNNING));
+        for (GenerationJob job : pending) {
+            if (job.getStatus() == GenerationJobStatus.RUNNING) {
+                notifyUser(markFailed(job, "Interrupted by a restart, please retry"));
+                continue;
+            }
+            try {
+                dispatch(job);
+            } catch (GenerationJobRejectedException ex) {
+                log.warn("Could not re-queue generation job {} on startup: {}", job.getJobId(), ex.getMessage());
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} pending generation jobs", pending.size());
+        }
+    }
+
+    GenerationJobDTO toDTO(GenerationJob job) {
+        ChatMessageDTO result = null;
+        if (job.getResultPayload() != null) {
+            try {
+                result = objectMapper.readValue(job.getResultPayload(), ChatMessageDTO.class);
+            } catch (JsonProcessingException e) {
+                log.error("Stored result of job {} could not be read", job.getJobId(), e);
+            }
+        }
+        return GenerationJobDTO.builder()
+                .jobId(job.getJobId())
+                .sessionId(job.getSessionId())
+                .status(job.getStatus())
+                .result(result)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
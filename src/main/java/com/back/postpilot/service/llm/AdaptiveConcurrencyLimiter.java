@@ -0,0 +1,217 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AIMD bulkhead for one LLM provider. The concurrency limit grows by roughly one per limit-worth of
+ * successful calls and is multiplied by {@code backoffRatio} on every 429 or timeout. Callers over the limit
+ * wait in a bounded queue; when the queue is full, or the wait exceeds {@code queueTimeout}, they are
+ * rejected immediately with {@link ProviderOverloadedException} instead of piling onto a struggling provider.
+ * A caller with a sooner deadline stops waiting at its deadline ({@link DeadlineExceededException}) and an
+ * interrupted caller stops with {@link GenerationCancelledException}; neither counts as saturation.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final String provider;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final int maxQueue;
+    private final Duration queueTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong overloads = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    public AdaptiveConcurrencyLimiter(String provider, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, int maxQueue, Duration queueTimeout) {
+        this.provider = provider;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        return execute(null, call);
+    }
+
+    public <T> T execute(Deadline deadline, Supplier<T> call) {
+        Permit permit = acquire(deadline);
+        try {
+            T result = call.get();
+            permit.success();
+            return result;
+        } catch (RuntimeException ex) {
+            permit.failure(ex);
+            throw ex;
+        } finally {
+            permit.release();
+        }
+    }
+
+    public Permit acquire() {
+        return acquire(null);
+    }
+
+    public Permit acquire(Deadline deadline) {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit() && waiting == 0) {
+                inFlight++;
+                return new Permit();
+            }
+            if (waiting >= maxQueue) {
+                rejections.incrementAndGet();
+                throw new ProviderOverloadedException(provider + " is saturated (" + inFlight + " in flight, "
+                        + waiting + " queued)");
+            }
+            waiting++;
+            try {
+                boolean deadlineFirst = deadline != null && deadline.remaining().compareTo(queueTimeout) < 0;
+                long remaining = deadlineFirst ? deadline.remaining().toNanos() : queueTimeout.toNanos();
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        if (deadlineFirst) {
+                            throw new DeadlineExceededException("Request deadline passed waiting for a " + provider + " slot");
+                        }
+                        rejections.incrementAndGet();
+                        throw new ProviderOverloadedException("Timed out waiting for a " + provider + " slot");
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GenerationCancelledException("Interrupted waiting for a " + provider + " slot");
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", currentLimit());
+            stats.put("inFlight", inFlight);
+            stats.put("queued", waiting);
+            stats.put("maxQueue", maxQueue);
+            stats.put("successes", successes.get());
+            stats.put("overloads", overloads.get());
+            stats.put("rejections", rejections.get());
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a failure means the provider is pushing back (rate limit or timeout) rather than a bad request.
+     */
+    public static boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof java.util.concurrent.TimeoutException || t instanceof java.net.SocketTimeoutException) {
+                return true;
+            }
+            String message = t.getMessage();
+            if (message != null) {
+                String lower = message.toLowerCase();
+                if (lower.contains("429") || lower.contains("too many requests") || lower.contains("rate limit")
+                        || lower.contains("resource_exhausted") || lower.contains("timed out")) {
+                    return true;
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private int currentLimit() {
+        return (int) Math.floor(limit);
+    }
+
+    private void onSuccess() {
+        successes.incrementAndGet();
+        lock.lock();
+        try {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onOverload() {
+        overloads.incrementAndGet();
+        lock.lock();
+        try {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            log.warn("{} is pushing back, concurrency limit reduced to {}", provider, currentLimit());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One acquired slot. Outcome and release are each applied at most once, so stream callbacks can
+     * call them from completion, error and cancellation paths without double counting.
+     */
+    public class Permit {
+
+        private final AtomicBoolean outcomeRecorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        public void success() {
+            if (outcomeRecorded.compareAndSet(false, true)) {
+                onSuccess();
+            }
+        }
+
+        public void failure(Throwable error) {
+            if (outcomeRecorded.compareAndSet(false, true) && isOverload(error)) {
+                onOverload();
+            }
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                lock.lock();
+                try {
+                    inFlight--;
+                    permitReleased.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.LLMService;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Serves repeated raw/title prompts from {@link LLMResponseCache} and fills it on a miss.
+ * Streaming requests replay a cached response as one delta and cache a completed stream. A regenerate
+ * request never reads the cache and overwrites the entry with its fresh response.
+ */
+public class CachingLLMService implements LLMService {
+
+    private static final String TASK_CONTENT = "content";
+    private static final String TASK_TITLE = "title";
+
+    private final LLMService delegate;
+    private final AssitanceModels model;
+    private final LLMResponseCache cache;
+
+    public CachingLLMService(LLMService delegate, AssitanceModels model, LLMResponseCache cache) {
+        this.delegate = delegate;
+        this.model = model;
+        this.cache = cache;
+    }
+
+    @Override
+    public String generateRawResponse(String prompt, ContentGenerationRequest request) {
+        String key = cache.key(TASK_CONTENT, model, request, "", prompt);
+        return cached(key, request).orElseGet(() -> {
+            String response = delegate.generateRawResponse(prompt, request);
+            cache.putContent(key, response);
+            return response;
+        });
+    }
+
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        String key = cache.key(TASK_CONTENT, model, request, systemPrompt, userPrompt);
+        return cached(key, request).orElseGet(() -> {
+            String response = delegate.generateRawResponse(systemPrompt, userPrompt, request);
+            cache.putContent(key, response);
+            return response;
+        });
+    }
+
+    @Override
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        // titles don't depend on platform or content type, so only the model and prompt go into the key
+        ContentGenerationRequest titleKey = ContentGenerationRequest.builder().build();
+        String key = cache.key(TASK_TITLE, model, titleKey, "", prompt);
+        return cached(key, request).orElseGet(() -> {
+            String title = delegate.generateTitle(prompt, request);
+            cache.putTitle(key, title);
+            return title;
+        });
+    }
+
+    private Optional<String> cached(String key, ContentGenerationRequest request) {
+        return request.isRegenerate() ? Optional.empty() : cache.get(key);
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        return streamCached(cache.key(TASK_CONTENT, model, request, "", prompt), request,
+                () -> delegate.streamRawResponse(prompt, request));
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        return streamCached(cache.key(TASK_CONTENT, model, request, systemPrompt, userPrompt), request,
+                () -> delegate.streamRawResponse(systemPrompt, userPrompt, request));
+    }
+
+    private Flux<String> streamCached(String key, ContentGenerationRequest request, Supplier<Flux<String>> stream) {
+        return cached(key, request)
+                .map(Flux::just)
+                .orElseGet(() -> {
+                    StringBuilder streamed = new StringBuilder();
+                    return stream.get()
+                            .doOnNext(streamed::append)
+                            .doOnComplete(() -> cache.putContent(key, streamed.toString()));
+                });
+    }
+}
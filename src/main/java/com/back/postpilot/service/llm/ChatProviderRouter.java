@@ -0,0 +1,250 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Routes chat calls across the ChatClient beans in priority order (Azure → OpenAI → Anthropic → local Ollama
+ * by default). Providers with an open circuit are skipped. If the current attempt is slower than that provider's
+ * latency percentile, a hedged request goes to the next healthy provider and the first answer wins; a failed
+ * attempt fails over to the next provider immediately. Replies from the local Ollama model have their
+ * {@code <think>} reasoning removed, as they do when Ollama is called directly.
+ */
+@Slf4j
+@Component
+public class ChatProviderRouter {
+
+    private static final String OLLAMA = "ollama";
+
+    private static final Map<String, String> CLIENT_BEANS = Map.of(
+            "azureopenai", "AzureOpenAiChatClient",
+            "openai", "OpenAiChatClient",
+            "anthropic", "AnthropicChatClient",
+            "ollama", "OllamaChatClient");
+
+    private final List<Route> routes = new ArrayList<>();
+    private final ExecutorService generationExecutor;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
+    private final Duration hedgeDefaultDelay;
+
+    public ChatProviderRouter(Map<String, ChatClient> chatClients,
+                              @Qualifier("generationExecutor") ExecutorService generationExecutor,
+                              @Value("${llm.router.providers:azureopenai,openai,anthropic,ollama}") List<String> providers,
+                              @Value("${llm.router.failure-threshold:5}") int failureThreshold,
+                              @Value("${llm.router.open-duration:PT30S}") Duration openDuration,
+                              @Value("${llm.router.hedge-percentile:0.95}") double hedgePercentile,
+                              @Value("${llm.router.hedge-min-delay:PT2S}") Duration hedgeMinDelay,
+                              @Value("${llm.router.hedge-default-delay:PT15S}") Duration hedgeDefaultDelay) {
+        this.generationExecutor = generationExecutor;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeDefaultDelay = hedgeDefaultDelay;
+        for (String provider : providers) {
+            String key = provider.trim().toLowerCase();
+            ChatClient client = chatClients.get(CLIENT_BEANS.getOrDefault(key, key));
+            if (client == null) {
+                log.warn("No ChatClient bean for provider '{}', leaving it out of the route", key);
+                continue;
+            }
+            routes.add(new Route(key, client, new ProviderCircuitBreaker(key, failureThreshold, openDuration)));
+        }
+    }
+
+    public String call(Function<ChatClient, String> call) {
+        return call(call, null);
+    }
+
+    /**
+     * Blocking call with hedging and failover. {@code call} receives the provider's ChatClient and returns its content.
+     * With a deadline, no attempt outlives it: everything still running is cancelled once the budget is spent.
+     */
+    public String call(Function<ChatClient, String> call, Deadline deadline) {
+        if (deadline != null) {
+            deadline.check("calling a chat provider");
+        }
+        // only look at the breakers here; a half-open probe is claimed when its attempt actually starts
+        List<Route> candidates = routes.stream().filter(route -> route.breaker().isAvailable()).toList();
+        CompletionService<String> completion = new ExecutorCompletionService<>(generationExecutor);
+        Map<Future<String>, Route> running = new LinkedHashMap<>();
+        Throwable lastFailure = null;
+        int next = startNext(candidates, 0, completion, running, call);
+        if (running.isEmpty()) {
+            throw new LLMProviderException("All chat providers are unavailable (circuits open)");
+        }
+
+        try {
+            while (!running.isEmpty()) {
+                Future<String> done;
+                long budgetMillis = deadline != null ? deadline.remaining().toMillis() : Long.MAX_VALUE;
+                if (next < candidates.size()) {
+                    Route latest = candidates.get(next - 1);
+                    long hedgeMillis = hedgeDelay(latest).toMillis();
+                    done = completion.poll(Math.min(hedgeMillis, budgetMillis), TimeUnit.MILLISECONDS);
+                    if (done == null && budgetMillis <= hedgeMillis) {
+                        throw new DeadlineExceededException("Request deadline passed while waiting for " + latest.provider());
+                    }
+                    if (done == null) {
+                        int before = running.size();
+                        next = startNext(candidates, next, completion, running, call);
+                        if (running.size() > before) {
+                            log.info("{} is slower than its p{} latency, hedging with {}",
+                                    latest.provider(), Math.round(hedgePercentile * 100), candidates.get(next - 1).provider());
+                        }
+                        continue;
+                    }
+                } else if (deadline == null) {
+                    done = completion.take();
+                } else {
+                    done = completion.poll(budgetMillis, TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        throw new DeadlineExceededException("Request deadline passed while waiting for a chat provider");
+                    }
+                }
+
+                Route route = running.remove(done);
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause();
+                    log.warn("Chat provider {} failed: {}", route.provider(), lastFailure.getMessage());
+                    if (running.isEmpty() && next < candidates.size()) {
+                        next = startNext(candidates, next, completion, running, call);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationCancelledException("Interrupted while waiting for a chat provider");
+        } finally {
+            // started attempts only: candidates that were never started never claimed anything
+            running.forEach((future, route) -> {
+                future.cancel(true);
+                route.breaker().recordCancelled();
+            });
+        }
+        throw new LLMProviderException("All chat providers failed", lastFailure);
+    }
+
+    /**
+     * Streams from the first healthy provider, failing over to the next one only if nothing has been emitted yet.
+     * Streams are not hedged: two half-finished streams cannot be merged into one reply.
+     */
+    public Flux<String> stream(Function<ChatClient, Flux<String>> call) {
+        List<Route> candidates = routes.stream().filter(route -> route.breaker().isAvailable()).toList();
+        return streamFrom(candidates, 0, call);
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (Route route : routes) {
+            stats.put(route.provider(), route.breaker().stats(hedgePercentile, hedgeDefaultDelay));
+        }
+        return stats;
+    }
+
+    private Flux<String> streamFrom(List<Route> candidates, int index, Function<ChatClient, Flux<String>> call) {
+        if (index >= candidates.size()) {
+            return Flux.error(new LLMProviderException("All chat providers are unavailable (circuits open)"));
+        }
+        Route route = candidates.get(index);
+        // the half-open probe is claimed on subscription, when the stream really starts
+        return Flux.defer(() -> {
+            if (!route.breaker().allowRequest()) {
+                return streamFrom(candidates, index + 1, call);
+            }
+            AtomicBoolean emitted = new AtomicBoolean();
+            long start = System.nanoTime();
+            return Flux.defer(() -> stripReasoning(route, call.apply(route.client())))
+                    .doOnNext(chunk -> emitted.set(true))
+                    .doOnComplete(() -> route.breaker().recordSuccess(Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnCancel(() -> route.breaker().recordCancelled())
+                    .onErrorResume(error -> {
+                        route.breaker().recordFailure();
+                        if (emitted.get() || index + 1 >= candidates.size()) {
+                            return Flux.error(new LLMProviderException("Chat stream failed on " + route.provider(), error));
+                        }
+                        log.warn("Chat provider {} failed before streaming, failing over: {}", route.provider(), error.getMessage());
+                        return streamFrom(candidates, index + 1, call);
+                    });
+        });
+    }
+
+    /**
+     * Starts the next candidate whose breaker still lets an attempt through (another request may have taken a
+     * half-open probe since the candidates were picked). Returns the index after the one started, or the
+     * number of candidates if none could start.
+     */
+    private int startNext(List<Route> candidates, int next, CompletionService<String> completion,
+                          Map<Future<String>, Route> running, Function<ChatClient, String> call) {
+        while (next < candidates.size()) {
+            Route route = candidates.get(next++);
+            if (route.breaker().allowRequest()) {
+                running.put(completion.submit(() -> attempt(route, call)), route);
+                break;
+            }
+        }
+        return next;
+    }
+
+    private String attempt(Route route, Function<ChatClient, String> call) {
+        long start = System.nanoTime();
+        try {
+            String content = stripReasoning(route, call.apply(route.client()));
+            if (content == null || content.isBlank()) {
+                throw new LLMProviderException(route.provider() + " returned an empty response");
+            }
+            route.breaker().recordSuccess(Duration.ofNanos(System.nanoTime() - start));
+            return content;
+        } catch (CancellationException e) {
+            route.breaker().recordCancelled();
+            throw e;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // lost the hedge race; the interrupt is ours, not the provider's fault
+                route.breaker().recordCancelled();
+            } else {
+                route.breaker().recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    private static String stripReasoning(Route route, String content) {
+        return OLLAMA.equals(route.provider()) ? ThinkBlocks.strip(content) : content;
+    }
+
+    private static Flux<String> stripReasoning(Route route, Flux<String> chunks) {
+        return OLLAMA.equals(route.provider()) ? ThinkBlocks.strip(chunks) : chunks;
+    }
+
+    private Duration hedgeDelay(Route route) {
+        Duration percentile = route.breaker().latencyPercentile(hedgePercentile, hedgeDefaultDelay);
+        return percentile.compareTo(hedgeMinDelay) < 0 ? hedgeMinDelay : percentile;
+    }
+
+    private record Route(String provider, ChatClient client, ProviderCircuitBreaker breaker) {
+    }
+}
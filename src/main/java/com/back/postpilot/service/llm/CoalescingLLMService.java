@@ -0,0 +1,56 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.LLMService;
+import com.back.postpilot.service.generation.SingleFlight;
+import reactor.core.publisher.Flux;
+
+/**
+ * Shares one provider call between concurrent identical raw/title requests (double submits, retries,
+ * everyone writing about the same news). Keys reuse {@link LLMResponseCache#key}; streams are not coalesced
+ * since every subscriber needs its own deltas.
+ */
+public class CoalescingLLMService implements LLMService {
+
+    private final LLMService delegate;
+    private final AssitanceModels model;
+    private final LLMResponseCache keys;
+    private final SingleFlight singleFlight;
+
+    public CoalescingLLMService(LLMService delegate, AssitanceModels model, LLMResponseCache keys, SingleFlight singleFlight) {
+        this.delegate = delegate;
+        this.model = model;
+        this.keys = keys;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public String generateRawResponse(String prompt, ContentGenerationRequest request) {
+        String key = "llm:" + keys.key("content", model, request, "", prompt);
+        return singleFlight.execute(key, request.getDeadline(), () -> delegate.generateRawResponse(prompt, request));
+    }
+
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        String key = "llm:" + keys.key("content", model, request, systemPrompt, userPrompt);
+        return singleFlight.execute(key, request.getDeadline(), () -> delegate.generateRawResponse(systemPrompt, userPrompt, request));
+    }
+
+    @Override
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        ContentGenerationRequest titleKey = ContentGenerationRequest.builder().build();
+        String key = "llm:" + keys.key("title", model, titleKey, "", prompt);
+        return singleFlight.execute(key, request.getDeadline(), () -> delegate.generateTitle(prompt, request));
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        return delegate.streamRawResponse(prompt, request);
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        return delegate.streamRawResponse(systemPrompt, userPrompt, request);
+    }
+}
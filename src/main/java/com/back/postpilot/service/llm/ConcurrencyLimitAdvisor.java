@@ -0,0 +1,75 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.service.generation.Deadline;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs every call of a {@link org.springframework.ai.chat.client.ChatClient} through the provider's
+ * {@link AdaptiveConcurrencyLimiter}. Ordered first so the slot covers the whole model call. Spring AI's own
+ * retries are off (spring.ai.retry.max-attempts=1) so every 429 reaches the limiter and no slot is held through
+ * a retry backoff. A request's deadline is passed as the {@link #DEADLINE} advisor param, see {@link #deadline}.
+ */
+public class ConcurrencyLimitAdvisor implements CallAdvisor, StreamAdvisor {
+
+    public static final String DEADLINE = "postpilot.deadline";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitAdvisor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Advisor params that bound the queue wait by {@code deadline}; {@code .advisors(deadline(d))} on a prompt.
+     */
+    public static Consumer<ChatClient.AdvisorSpec> deadline(Deadline deadline) {
+        return spec -> {
+            if (deadline != null) {
+                spec.param(DEADLINE, deadline);
+            }
+        };
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        return limiter.execute(deadlineOf(request), () -> chain.nextCall(request));
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        // acquiring may block while queued, so never do it on the subscriber's event loop
+        return Flux.defer(() -> {
+                    AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(deadlineOf(request));
+                    return chain.nextStream(request)
+                            .doOnComplete(permit::success)
+                            .doOnError(permit::failure)
+                            .doFinally(signal -> permit.release());
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Deadline deadlineOf(ChatClientRequest request) {
+        return request.context().get(DEADLINE) instanceof Deadline deadline ? deadline : null;
+    }
+
+    @Override
+    public String getName() {
+        return "ConcurrencyLimitAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,50 @@
+package com.back.postpilot.service.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per provider key ("azureopenai", "openai", "anthropic", "ollama", "gemini").
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxQueue;
+    private final Duration queueTimeout;
+
+    public ConcurrencyLimiterRegistry(@Value("${llm.concurrency.initial-limit:4}") int initialLimit,
+                                      @Value("${llm.concurrency.min-limit:1}") int minLimit,
+                                      @Value("${llm.concurrency.max-limit:32}") int maxLimit,
+                                      @Value("${llm.concurrency.backoff-ratio:0.5}") double backoffRatio,
+                                      @Value("${llm.concurrency.max-queue:50}") int maxQueue,
+                                      @Value("${llm.concurrency.queue-timeout:PT30S}") Duration queueTimeout) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+    }
+
+    public AdaptiveConcurrencyLimiter forProvider(String provider) {
+        return limiters.computeIfAbsent(provider, key -> new AdaptiveConcurrencyLimiter(
+                key, initialLimit, minLimit, maxLimit, backoffRatio, maxQueue, queueTimeout));
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        limiters.forEach((provider, limiter) -> stats.put(provider, limiter.stats()));
+        return stats;
+    }
+}
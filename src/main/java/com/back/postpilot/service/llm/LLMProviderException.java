@@ -0,0 +1,15 @@
+package com.back.postpilot.service.llm;
+
+/**
+ * Raised when no provider could produce a response, so callers fail instead of persisting an error string as content.
+ */
+public class LLMProviderException extends RuntimeException {
+
+    public LLMProviderException(String message) {
+        super(message);
+    }
+
+    public LLMProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,142 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact-match cache of LLM responses, keyed on a SHA-256 of task, model, platform, content type and the
+ * whitespace-normalized system and user prompts. The model is the one that actually serves the call, which
+ * for a routed task can differ from the one on the request. Size-bounded LRU with a TTL per entry.
+ */
+@Slf4j
+@Component
+public class LLMResponseCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration contentTtl;
+    private final Duration titleTtl;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Map<String, Entry> entries;
+
+    public LLMResponseCache(@Value("${llm.cache.enabled:true}") boolean enabled,
+                            @Value("${llm.cache.max-entries:500}") int maxEntries,
+                            @Value("${llm.cache.ttl:PT30M}") Duration contentTtl,
+                            @Value("${llm.cache.title-ttl:PT24H}") Duration titleTtl) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.contentTtl = contentTtl;
+        this.titleTtl = titleTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > LLMResponseCache.this.maxEntries;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String key(String task, AssitanceModels model, ContentGenerationRequest request, String systemPrompt, String userPrompt) {
+        String material = String.join("\u0000",
+                task,
+                model.getKey(),
+                String.valueOf(request.getPlatform()).toLowerCase(),
+                String.valueOf(request.getContentType()),
+                normalize(systemPrompt),
+                normalize(userPrompt));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public synchronized Optional<String> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            entries.remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(entry.value());
+    }
+
+    public void putContent(String key, String value) {
+        put(key, value, contentTtl);
+    }
+
+    public void putTitle(String key, String value) {
+        put(key, value, titleTtl);
+    }
+
+    private synchronized void put(String key, String value, Duration ttl) {
+        if (!isCacheable(value)) {
+            return;
+        }
+        entries.put(key, new Entry(value, Instant.now().plus(ttl)));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private boolean isCacheable(String value) {
+        // providers still report failures as these literal strings; never serve them from cache
+        return value != null && !value.isBlank()
+                && !value.equals("bad Request")
+                && !value.equals("Prompt cannot be empty");
+    }
+
+    private String normalize(String prompt) {
+        return prompt == null ? "" : prompt.trim().replaceAll("\\s+", " ");
+    }
+
+    private record Entry(String value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.EnumTypeConstants.LLMTask;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.LLMService;
+import com.back.postpilot.service.LLMServiceFactory;
+import com.back.postpilot.service.generation.GenerationFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Picks the model for each {@link LLMTask}. Rules in {@code llm.routing.rules} are {@code TASK=model} or
+ * {@code CONTENT_TYPE.TASK=model}, the latter taking precedence; {@code selected} (and any task without a rule)
+ * means the model the user chose. A routed call that fails falls back to the user's model, unless it failed
+ * because the request ran out of time or was cancelled.
+ */
+@Slf4j
+@Component
+public class LLMTaskRouter {
+
+    private static final String SELECTED = "selected";
+
+    private final LLMServiceFactory llmServiceFactory;
+    private final Map<String, String> rules = new HashMap<>();
+    private final Map<LLMTask, TaskStats> stats = new EnumMap<>(LLMTask.class);
+
+    public LLMTaskRouter(LLMServiceFactory llmServiceFactory,
+                         @Value("${llm.routing.rules:TITLE=ollama,SUMMARY=ollama,HASHTAGS=ollama}") List<String> rules) {
+        this.llmServiceFactory = llmServiceFactory;
+        for (String rule : rules) {
+            String[] parts = rule.split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                log.warn("Ignoring malformed LLM routing rule '{}'", rule);
+                continue;
+            }
+            this.rules.put(parts[0].trim().toUpperCase(), parts[1].trim().toLowerCase());
+        }
+        for (LLMTask task : LLMTask.values()) {
+            stats.put(task, new TaskStats());
+        }
+    }
+
+    public LLMService forTask(LLMTask task, ContentGenerationRequest request) {
+        LLMService selected = llmServiceFactory.getService(AssitanceModels.fromString(request.getModel()));
+        String model = modelFor(task, request);
+        if (SELECTED.equals(model) || AssitanceModels.fromString(model) == AssitanceModels.fromString(request.getModel())) {
+            return new RoutedLLMService(task, selected, null);
+        }
+        return new RoutedLLMService(task, llmServiceFactory.getService(AssitanceModels.fromString(model)), selected);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rules", new LinkedHashMap<>(rules));
+        Map<String, Object> tasks = new LinkedHashMap<>();
+        stats.forEach((task, taskStats) -> tasks.put(task.name(), taskStats.snapshot()));
+        result.put("tasks", tasks);
+        return result;
+    }
+
+    private String modelFor(LLMTask task, ContentGenerationRequest request) {
+        if (request.getContentType() != null) {
+            String specific = rules.get(request.getContentType().name() + "." + task.name());
+            if (specific != null) {
+                return specific;
+            }
+        }
+        return rules.getOrDefault(task.name(), SELECTED);
+    }
+
+    private static class TaskStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong fallbacks = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long millis, boolean failed) {
+            calls.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = calls.get();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("calls", count);
+            snapshot.put("failures", failures.get());
+            snapshot.put("fallbacks", fallbacks.get());
+            snapshot.put("avgLatencyMs", count == 0 ? 0 : totalMillis.get() / count);
+            snapshot.put("maxLatencyMs", maxMillis.get());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Times every call under its task and retries on the user's model if the routed one fails.
+     */
+    private class RoutedLLMService implements LLMService {
+
+        private final LLMTask task;
+        private final LLMService routed;
+        private final LLMService fallback;
+
+        RoutedLLMService(LLMTask task, LLMService routed, LLMService fallback) {
+            this.task = task;
+            this.routed = routed;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public String generateRawResponse(String prompt, ContentGenerationRequest request) {
+            return timed(() -> routed.generateRawResponse(prompt, request),
+                    () -> fallback.generateRawResponse(prompt, request));
+        }
+
+        @Override
+        public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+            return timed(() -> routed.generateRawResponse(systemPrompt, userPrompt, request),
+                    () -> fallback.generateRawResponse(systemPrompt, userPrompt, request));
+        }
+
+        @Override
+        public String generateTitle(String prompt, ContentGenerationRequest request) {
+            return timed(() -> routed.generateTitle(prompt, request),
+                    () -> fallback.generateTitle(prompt, request));
+        }
+
+        @Override
+        public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+            return timed(routed.streamRawResponse(prompt, request));
+        }
+
+        @Override
+        public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+            return timed(routed.streamRawResponse(systemPrompt, userPrompt, request));
+        }
+
+        private Flux<String> timed(Flux<String> stream) {
+            TaskStats taskStats = stats.get(task);
+            long start = System.nanoTime();
+            return stream
+                    .doOnComplete(() -> taskStats.record(elapsedMillis(start), false))
+                    .doOnError(error -> taskStats.record(elapsedMillis(start), true));
+        }
+
+        private String timed(Supplier<String> call, Supplier<String> fallbackCall) {
+            TaskStats taskStats = stats.get(task);
+            long start = System.nanoTime();
+            try {
+                String result = call.get();
+                taskStats.record(elapsedMillis(start), false);
+                return result;
+            } catch (RuntimeException ex) {
+                taskStats.record(elapsedMillis(start), true);
+                // a spent deadline or a cancelled request must not start a second (paid) call
+                if (fallback == null || ex instanceof GenerationFailedException || Thread.currentThread().isInterrupted()) {
+                    throw ex;
+                }
+                log.warn("{} call on the routed model failed, falling back to the selected model: {}", task, ex.getMessage());
+                taskStats.fallbacks.incrementAndGet();
+                return fallbackCall.get();
+            }
+        }
+
+        private long elapsedMillis(long start) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.back.postpilot.service.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prompt vs. provider-cached prompt tokens per provider, to see what prefix caching saves.
+ * Cached counts come from each provider's native usage object: OpenAI/Azure
+ * {@code prompt_tokens_details.cached_tokens}, Anthropic {@code cache_read_input_tokens},
+ * Gemini {@code cachedContentTokenCount}.
+ */
+@Slf4j
+@Component
+public class PromptCacheStats {
+
+    private static final String[] CACHED_TOKEN_FIELDS = {
+            "cached_tokens", "cachedTokens", "cache_read_input_tokens", "cacheReadInputTokens", "cachedContentTokenCount"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public void record(String provider, long promptTokens, long cachedTokens) {
+        Counters providerCounters = counters.computeIfAbsent(provider, key -> new Counters());
+        providerCounters.calls.incrementAndGet();
+        providerCounters.promptTokens.addAndGet(promptTokens);
+        providerCounters.cachedTokens.addAndGet(cachedTokens);
+    }
+
+    public void record(String provider, Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        long promptTokens = usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+        record(provider, promptTokens, cachedTokens(usage.getNativeUsage()));
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        counters.forEach((provider, providerCounters) -> {
+            long prompt = providerCounters.promptTokens.get();
+            long cached = providerCounters.cachedTokens.get();
+            Map<String, Object> providerStats = new LinkedHashMap<>();
+            providerStats.put("calls", providerCounters.calls.get());
+            providerStats.put("promptTokens", prompt);
+            providerStats.put("cachedTokens", cached);
+            providerStats.put("cachedRatio", prompt == 0 ? 0.0 : (double) cached / prompt);
+            stats.put(provider, providerStats);
+        });
+        return stats;
+    }
+
+    private long cachedTokens(Object nativeUsage) {
+        if (nativeUsage == null) {
+            return 0;
+        }
+        try {
+            JsonNode tree = objectMapper.valueToTree(nativeUsage);
+            for (String field : CACHED_TOKEN_FIELDS) {
+                JsonNode value = tree.findValue(field);
+                if (value != null && value.canConvertToLong()) {
+                    return value.asLong();
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            log.debug("Could not read cached tokens from {}: {}", nativeUsage.getClass().getSimpleName(), ex.getMessage());
+        }
+        return 0;
+    }
+
+    private static class Counters {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong promptTokens = new AtomicLong();
+        private final AtomicLong cachedTokens = new AtomicLong();
+    }
+}
@@ -0,0 +1,63 @@
+package com.back.postpilot.service.llm;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Feeds each response's token usage into {@link PromptCacheStats}. For streams, the last chunk carrying usage wins.
+ */
+public class PromptCacheUsageAdvisor implements CallAdvisor, StreamAdvisor {
+
+    private final String provider;
+    private final PromptCacheStats promptCacheStats;
+
+    public PromptCacheUsageAdvisor(String provider, PromptCacheStats promptCacheStats) {
+        this.provider = provider;
+        this.promptCacheStats = promptCacheStats;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        ChatClientResponse response = chain.nextCall(request);
+        promptCacheStats.record(provider, usageOf(response));
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        AtomicReference<Usage> lastUsage = new AtomicReference<>();
+        return chain.nextStream(request)
+                .doOnNext(response -> {
+                    Usage usage = usageOf(response);
+                    if (usage != null && usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+                        lastUsage.set(usage);
+                    }
+                })
+                .doOnComplete(() -> promptCacheStats.record(provider, lastUsage.get()));
+    }
+
+    @Override
+    public String getName() {
+        return "PromptCacheUsageAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private Usage usageOf(ChatClientResponse response) {
+        ChatResponse chatResponse = response != null ? response.chatResponse() : null;
+        return chatResponse != null && chatResponse.getMetadata() != null ? chatResponse.getMetadata().getUsage() : null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.back.postpilot.service.llm;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker plus latency window for one chat provider. Opens after {@code failureThreshold} consecutive
+ * failures, rejects calls for {@code openDuration}, then lets a single probe through (half-open) to decide
+ * whether to close again. Successful latencies feed the percentile used as the hedge delay.
+ * <p>
+ * {@link #isAvailable()} only looks; {@link #allowRequest()} claims the half-open probe and must be called
+ * right before the attempt is actually started, which then has to end in recordSuccess, recordFailure or
+ * recordCancelled.
+ */
+public class ProviderCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int LATENCY_WINDOW = 100;
+
+    private final String provider;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyIndex;
+
+    private long successes;
+    private long failures;
+
+    public ProviderCircuitBreaker(String provider, int failureThreshold, Duration openDuration) {
+        this.provider = provider;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Whether an attempt could start now, without claiming the half-open probe.
+     */
+    public synchronized boolean isAvailable() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> openDurationElapsed();
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+
+    /**
+     * Claims permission for one attempt that is about to start; in half-open state only one caller gets it.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized void recordSuccess(Duration latency) {
+        successes++;
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+        probeInFlight = false;
+        latencies[latencyIndex] = latency.toMillis();
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = Instant.now();
+        }
+    }
+
+    /**
+     * Releases a half-open probe that was cancelled (lost a hedge race) without counting it either way.
+     */
+    public synchronized void recordCancelled() {
+        probeInFlight = false;
+    }
+
+    private boolean openDurationElapsed() {
+        return !Instant.now().isBefore(openedAt.plus(openDuration));
+    }
+
+    /**
+     * Latency percentile over the recent window, or {@code fallback} until enough samples exist.
+     */
+    public synchronized Duration latencyPercentile(double percentile, Duration fallback) {
+        if (latencyCount < 10) {
+            return fallback;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * latencyCount) - 1;
+        return Duration.ofMillis(sorted[Math.max(0, Math.min(index, latencyCount - 1))]);
+    }
+
+    public synchronized Map<String, Object> stats(double percentile, Duration fallback) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("successes", successes);
+        stats.put("failures", failures);
+        stats.put("hedgeDelayMs", latencyPercentile(percentile, fallback).toMillis());
+        return stats;
+    }
+}
@@ -0,0 +1,11 @@
+package com.back.postpilot.service.llm;
+
+/**
+ * Thrown when a provider's bulkhead is saturated and the caller could not be queued (or waited too long).
+ */
+public class ProviderOverloadedException extends RuntimeException {
+
+    public ProviderOverloadedException(String message) {
+        super(message);
+    }
+}
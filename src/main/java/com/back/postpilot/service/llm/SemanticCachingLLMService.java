@@ -0,0 +1,60 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.LLMService;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+
+/**
+ * Applies {@link SemanticResponseCache} to platform-content generation (the system + user prompt call).
+ * Titles, chat replies and streams are short or latency-sensitive and go straight to the delegate.
+ * A regenerate request skips the lookup but still stores its fresh generation. Entries are keyed on the model
+ * this decorator wraps, not the one named on the request.
+ */
+public class SemanticCachingLLMService implements LLMService {
+
+    private final LLMService delegate;
+    private final AssitanceModels model;
+    private final SemanticResponseCache cache;
+
+    public SemanticCachingLLMService(LLMService delegate, AssitanceModels model, SemanticResponseCache cache) {
+        this.delegate = delegate;
+        this.model = model;
+        this.cache = cache;
+    }
+
+    @Override
+    public String generateRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        if (!request.isRegenerate()) {
+            Optional<String> cached = cache.lookup(model, request, systemPrompt, userPrompt);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        String response = delegate.generateRawResponse(systemPrompt, userPrompt, request);
+        cache.store(model, request, systemPrompt, userPrompt, response);
+        return response;
+    }
+
+    @Override
+    public String generateRawResponse(String prompt, ContentGenerationRequest request) {
+        return delegate.generateRawResponse(prompt, request);
+    }
+
+    @Override
+    public String generateTitle(String prompt, ContentGenerationRequest request) {
+        return delegate.generateTitle(prompt, request);
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String prompt, ContentGenerationRequest request) {
+        return delegate.streamRawResponse(prompt, request);
+    }
+
+    @Override
+    public Flux<String> streamRawResponse(String systemPrompt, String userPrompt, ContentGenerationRequest request) {
+        return delegate.streamRawResponse(systemPrompt, userPrompt, request);
+    }
+}
@@ -0,0 +1,197 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.service.generation.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Semantic cache of platform content. User prompts are embedded (Ollama mxbai-embed-large) into the pgvector
+ * store; a new request whose prompt is at least {@code similarity-threshold} similar to a past generation for
+ * the same user, model, platform, content type and system prompt reuses that generation instead of calling the
+ * provider. Entries are per user because the embedded prompt carries the user's private context and conversation;
+ * requests without a user are not cached. The user id must be the authenticated caller, which the chat endpoints
+ * set from the principal and never take from the request body. The lookup is on the request's critical path, so it
+ * is abandoned after {@code lookup-timeout} (or the request deadline, if sooner) and counts as a miss.
+ */
+@Slf4j
+@Component
+public class SemanticResponseCache {
+
+    private static final String CACHE_TYPE = "llm-response";
+
+    private final VectorStore vectorStore;
+    private final ExecutorService generationExecutor;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final double costPerThousandTokens;
+    private final Duration lookupTimeout;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong tokensSaved = new AtomicLong();
+
+    public SemanticResponseCache(ObjectProvider<VectorStore> vectorStore,
+                                 @Qualifier("generationExecutor") ExecutorService generationExecutor,
+                                 @Value("${llm.semantic-cache.enabled:true}") boolean enabled,
+                                 @Value("${llm.semantic-cache.similarity-threshold:0.92}") double similarityThreshold,
+                                 @Value("${llm.semantic-cache.cost-per-1k-tokens:0.01}") double costPerThousandTokens,
+                                 @Value("${llm.semantic-cache.lookup-timeout:PT1S}") Duration lookupTimeout) {
+        this.vectorStore = vectorStore.getIfAvailable();
+        this.generationExecutor = generationExecutor;
+        this.enabled = enabled && this.vectorStore != null;
+        this.similarityThreshold = similarityThreshold;
+        this.costPerThousandTokens = costPerThousandTokens;
+        this.lookupTimeout = lookupTimeout;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<String> lookup(AssitanceModels model, ContentGenerationRequest request, String systemPrompt, String userPrompt) {
+        if (request.getUserId() == null) {
+            return Optional.empty();
+        }
+        Future<List<Document>> search = generationExecutor.submit(() -> vectorStore.similaritySearch(SearchRequest.builder()
+                .query(userPrompt)
+                .topK(1)
+                .similarityThreshold(similarityThreshold)
+                .filterExpression(filterFor(model, request, systemPrompt))
+                .build()));
+        try {
+            List<Document> matches = search.get(lookupBudget(request.getDeadline()).toMillis(), TimeUnit.MILLISECONDS);
+            if (matches == null || matches.isEmpty()) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            Document match = matches.get(0);
+            Object response = match.getMetadata().get("response");
+            if (!(response instanceof String cached) || cached.isBlank()) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            tokensSaved.addAndGet(estimateTokens(systemPrompt) + estimateTokens(userPrompt) + estimateTokens(cached));
+            log.debug("Semantic cache hit (score {}) for prompt: {}", match.getScore(), userPrompt);
+            return Optional.of(cached);
+        } catch (TimeoutException ex) {
+            search.cancel(true);
+            timeouts.incrementAndGet();
+            log.warn("Semantic cache lookup took longer than {}, calling the provider", lookupTimeout);
+            return Optional.empty();
+        } catch (InterruptedException ex) {
+            search.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (Exception ex) {
+            // an unavailable embedding model or vector store must never fail the generation itself
+            errors.incrementAndGet();
+            log.warn("Semantic cache lookup failed, calling the provider: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the generation in the background so the embedding call never adds to the user's latency.
+     */
+    public void store(AssitanceModels model, ContentGenerationRequest request, String systemPrompt, String userPrompt, String response) {
+        if (request.getUserId() == null || response == null || response.isBlank() || response.equals("bad Request")) {
+            return;
+        }
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("cacheType", CACHE_TYPE);
+        metadata.put("userId", String.valueOf(request.getUserId()));
+        metadata.put("model", model.getKey());
+        metadata.put("platform", sanitize(request.getPlatform()));
+        metadata.put("contentType", String.valueOf(request.getContentType()));
+        metadata.put("systemHash", hash(systemPrompt));
+        metadata.put("response", response);
+        metadata.put("createdAt", LocalDateTime.now().toString());
+        generationExecutor.execute(() -> {
+            try {
+                vectorStore.add(List.of(new Document(userPrompt, metadata)));
+            } catch (Exception ex) {
+                errors.incrementAndGet();
+                log.warn("Failed to store generation in semantic cache: {}", ex.getMessage());
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("similarityThreshold", similarityThreshold);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("errors", errors.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("estimatedTokensSaved", tokensSaved.get());
+        stats.put("estimatedCostSaved", tokensSaved.get() / 1000.0 * costPerThousandTokens);
+        return stats;
+    }
+
+    private String filterFor(AssitanceModels model, ContentGenerationRequest request, String systemPrompt) {
+        return "cacheType == '" + CACHE_TYPE + "'"
+                + " && userId == '" + request.getUserId() + "'"
+                + " && model == '" + model.getKey() + "'"
+                + " && platform == '" + sanitize(request.getPlatform()) + "'"
+                + " && contentType == '" + request.getContentType() + "'"
+                + " && systemHash == '" + hash(systemPrompt) + "'";
+    }
+
+    private Duration lookupBudget(Deadline deadline) {
+        if (deadline == null) {
+            return lookupTimeout;
+        }
+        Duration remaining = deadline.remaining();
+        return remaining.compareTo(lookupTimeout) < 0 ? remaining : lookupTimeout;
+    }
+
+    private String sanitize(String value) {
+        return value == null ? "" : value.toLowerCase().replace("'", "");
+    }
+
+    private long estimateTokens(String text) {
+        // ~4 characters per token is close enough for a savings estimate
+        return text == null ? 0 : text.length() / 4;
+    }
+
+    private String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.back.postpilot.service.llm;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+/**
+ * Removes the {@code <think>…</think>} reasoning that qwen3 and other local reasoning models put in front of
+ * their answer, so it never reaches the user or gets saved as content.
+ */
+public final class ThinkBlocks {
+
+    private static final String OPEN = "<think>";
+    private static final String CLOSE = "</think>";
+    private static final Pattern THINK_BLOCK = Pattern.compile("(?s)<think>.*?</think>");
+
+    private ThinkBlocks() {
+    }
+
+    public static String strip(String response) {
+        return response == null ? null : THINK_BLOCK.matcher(response).replaceAll("").trim();
+    }
+
+    /**
+     * Streaming variant. Tags may be split across chunks, so a possible partial tag is held back until the next
+     * chunk shows what it is; an unterminated block at the end of the stream is dropped.
+     */
+    public static Flux<String> strip(Flux<String> chunks) {
+        return Flux.defer(() -> {
+            StreamFilter filter = new StreamFilter();
+            return chunks.map(filter::accept)
+                    .concatWith(Mono.fromCallable(filter::flush))
+                    .filter(text -> !text.isEmpty());
+        });
+    }
+
+    private static final class StreamFilter {
+
+        private final StringBuilder pending = new StringBuilder();
+        private boolean inThink;
+        private boolean trimLeading = true;
+
+        String accept(String chunk) {
+            pending.append(chunk);
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                if (inThink) {
+                    int close = pending.indexOf(CLOSE);
+                    if (close < 0) {
+                        // keep only what could be the start of the closing tag
+                        pending.delete(0, Math.max(0, pending.length() - (CLOSE.length() - 1)));
+                        break;
+                    }
+                    pending.delete(0, close + CLOSE.length());
+                    inThink = false;
+                    trimLeading = true;
+                } else {
+                    int open = pending.indexOf(OPEN);
+                    if (open >= 0) {
+                        emit(out, pending.substring(0, open));
+                        pending.delete(0, open + OPEN.length());
+                        inThink = true;
+                        continue;
+                    }
+                    int keep = partialOpenTag();
+                    emit(out, pending.substring(0, pending.length() - keep));
+                    pending.delete(0, pending.length() - keep);
+                    break;
+                }
+            }
+            return out.toString();
+        }
+
+        String flush() {
+            StringBuilder out = new StringBuilder();
+            if (!inThink) {
+                emit(out, pending.toString());
+            }
+            pending.setLength(0);
+            return out.toString();
+        }
+
+        private void emit(StringBuilder out, String text) {
+            if (trimLeading) {
+                text = text.stripLeading();
+                if (text.isEmpty()) {
+                    return;
+                }
+                trimLeading = false;
+            }
+            out.append(text);
+        }
+
+        private int partialOpenTag() {
+            for (int length = Math.min(OPEN.length() - 1, pending.length()); length > 0; length--) {
+                if (pending.substring(pending.length() - length).equals(OPEN.substring(0, length))) {
+                    return length;
+                }
+            }
+            return 0;
+        }
+    }
+}
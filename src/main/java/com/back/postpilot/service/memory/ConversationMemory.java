@@ -0,0 +1,176 @@
+package com.back.postpilot.service.memory;
+
+import com.back.postpilot.EnumTypeConstants.MessageType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import com.back.postpilot.entity.ChatMessage;
+import com.back.postpilot.entity.ChatSession;
+import com.back.postpilot.repository.ChatMessageRepository;
+import com.back.postpilot.repository.ChatSessionRepository;
+import com.back.postpilot.service.ChatPersistenceService;
+import com.back.postpilot.service.ChatPrompts;
+import com.back.postpilot.service.LLMService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Bounded conversation memory for a chat session: the last {@code window-size} messages verbatim (each capped
+ * at {@code max-message-chars}) plus a rolling summary of everything older, kept on the session. Messages that
+ * fall out of the window are folded into the summary in the background once {@code summarize-batch} of them
+ * have accumulated, so prompt size stays flat however long the session runs. Until then they stay in the
+ * context verbatim, so nothing drops out between leaving the window and reaching the summary.
+ */
+@Slf4j
+@Component
+public class ConversationMemory {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatPersistenceService chatPersistenceService;
+    private final ExecutorService generationExecutor;
+    private final boolean enabled;
+    private final int windowSize;
+    private final int maxMessageChars;
+    private final int summarizeBatch;
+    private final int maxSummaryChars;
+
+    private final Set<Long> summarizing = ConcurrentHashMap.newKeySet();
+
+    public ConversationMemory(ChatMessageRepository chatMessageRepository,
+                              ChatSessionRepository chatSessionRepository,
+                              ChatPersistenceService chatPersistenceService,
+                              @Qualifier("generationExecutor") ExecutorService generationExecutor,
+                              @Value("${chat.memory.enabled:true}") boolean enabled,
+                              @Value("${chat.memory.window-size:6}") int windowSize,
+                              @Value("${chat.memory.max-message-chars:1000}") int maxMessageChars,
+                              @Value("${chat.memory.summarize-batch:4}") int summarizeBatch,
+                              @Value("${chat.memory.max-summary-chars:2000}") int maxSummaryChars) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatPersistenceService = chatPersistenceService;
+        this.generationExecutor = generationExecutor;
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.maxMessageChars = maxMessageChars;
+        this.summarizeBatch = summarizeBatch;
+        this.maxSummaryChars = maxSummaryChars;
+    }
+
+    /**
+     * Builds the context for the turn that {@code ChatPersistenceService.openTurn} just started, or null for a
+     * fresh session. The newest message is that turn's own user prompt, so it is left out of the window.
+     */
+    public String buildContext(ChatSession session) {
+        if (!enabled) {
+            return null;
+        }
+        List<ChatMessage> recent = new ArrayList<>(chatMessageRepository.findByChatSessionIdOrderByIdDesc(
+                session.getId(), PageRequest.of(0, windowSize + 1)));
+        List<ChatMessage> window = new ArrayList<>(recent.size() > 1 ? recent.subList(1, recent.size()) : List.of());
+        if (window.size() == windowSize) {
+            // evicted from the window but not folded into the summary yet
+            Long summarizedThrough = session.getSummarizedThroughMessageId() != null ? session.getSummarizedThroughMessageId() : 0L;
+            List<ChatMessage> unsummarized = chatMessageRepository.findByChatSessionIdAndIdGreaterThanAndIdLessThanOrderByIdAsc(
+                    session.getId(), summarizedThrough, window.get(window.size() - 1).getId());
+            for (int i = unsummarized.size() - 1; i >= 0; i--) {
+                window.add(unsummarized.get(i));
+            }
+        }
+        String summary = session.getSummary();
+        if (window.isEmpty() && (summary == null || summary.isBlank())) {
+            return null;
+        }
+
+        StringBuilder context = new StringBuilder();
+        if (summary != null && !summary.isBlank()) {
+            context.append("Summary of earlier messages:\n").append(summary).append("\n\n");
+        }
+        if (!window.isEmpty()) {
+            List<ChatMessage> chronological = new ArrayList<>(window);
+            Collections.reverse(chronological);
+            context.append("Recent messages:\n").append(transcript(chronological));
+        }
+        return context.toString().trim();
+    }
+
+    /**
+     * Folds messages that have left the window into the session summary, off the request thread.
+     * At most one summarization runs per session at a time.
+     */
+    public void updateSummaryAsync(ChatSession session, LLMService llmService, ContentGenerationRequest request) {
+        if (!enabled || session.getId() == null || !summarizing.add(session.getId())) {
+            return;
+        }
+        // the summary runs after the turn has answered, so it must not inherit the request's deadline
+        ContentGenerationRequest summaryRequest = ContentGenerationRequest.builder()
+                .userId(request.getUserId())
+                .sessionId(request.getSessionId())
+                .model(request.getModel())
+                .platform(request.getPlatform())
+                .contentType(request.getContentType())
+                .build();
+        generationExecutor.execute(() -> {
+            try {
+                summarize(session.getId(), llmService, summaryRequest);
+            } catch (Exception ex) {
+                log.warn("Conversation summary update failed for session {}: {}", session.getSessionId(), ex.getMessage());
+            } finally {
+                summarizing.remove(session.getId());
+            }
+        });
+    }
+
+    private void summarize(Long sessionId, LLMService llmService, ContentGenerationRequest request) {
+        List<ChatMessage> window = chatMessageRepository.findByChatSessionIdOrderByIdDesc(sessionId, PageRequest.of(0, windowSize));
+        if (window.size() < windowSize) {
+            return;
+        }
+        Long oldestInWindow = window.get(window.size() - 1).getId();
+
+        // re-read rather than trusting the caller's copy: another turn may have summarized since it was loaded
+        ChatSession session = chatSessionRepository.findById(sessionId).orElse(null);
+        if (session == null) {
+            return;
+        }
+        Long summarizedThrough = session.getSummarizedThroughMessageId() != null ? session.getSummarizedThroughMessageId() : 0L;
+        List<ChatMessage> evicted = chatMessageRepository.findByChatSessionIdAndIdGreaterThanAndIdLessThanOrderByIdAsc(
+                sessionId, summarizedThrough, oldestInWindow);
+        if (evicted.size() < summarizeBatch) {
+            return;
+        }
+
+        String prompt = ChatPrompts.summaryPrompt(session.getSummary(), transcript(evicted), maxSummaryChars / 6);
+        String summary = llmService.generateRawResponse(prompt, request);
+        if (summary == null || summary.isBlank()) {
+            return;
+        }
+        chatPersistenceService.updateSummary(sessionId, truncate(summary.trim(), maxSummaryChars),
+                evicted.get(evicted.size() - 1).getId());
+        log.debug("Folded {} messages into the summary of session {}", evicted.size(), sessionId);
+    }
+
+    private String transcript(List<ChatMessage> messages) {
+        StringBuilder transcript = new StringBuilder();
+        for (ChatMessage message : messages) {
+            String speaker = message.getMessageType() == MessageType.USER ? "User" : "Assistant";
+            transcript.append(speaker).append(": ").append(truncate(message.getContent(), maxMessageChars)).append("\n");
+        }
+        return transcript.toString();
+    }
+
+    private String truncate(String text, int max) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() > max ? text.substring(0, max - 3) + "..." : text;
+    }
+}
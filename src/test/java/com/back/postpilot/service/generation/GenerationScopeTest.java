@@ -0,0 +1,111 @@
+package com.back.postpilot.service.generation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationScopeTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void joinReturnsOnceEveryTaskSucceeded() throws Exception {
+        try (GenerationScope scope = open(Duration.ofSeconds(5))) {
+            Future<String> first = scope.fork(() -> "a");
+            Future<String> second = scope.fork(() -> "b");
+            scope.join();
+
+            assertEquals("a", first.get());
+            assertEquals("b", second.get());
+        }
+    }
+
+    @Test
+    void cancelledTaskKeepsItsType() {
+        try (GenerationScope scope = open(Duration.ofSeconds(5))) {
+            scope.fork(() -> {
+                throw new GenerationCancelledException("client went away");
+            });
+
+            assertThrows(GenerationCancelledException.class, scope::join);
+        }
+    }
+
+    @Test
+    void otherFailuresAreWrappedAndCancelTheRest() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        try (GenerationScope scope = open(Duration.ofSeconds(5))) {
+            Future<Object> slow = scope.fork(() -> {
+                never.await();
+                return null;
+            });
+            scope.fork(() -> {
+                throw new IllegalStateException("provider down");
+            });
+
+            GenerationFailedException failure = assertThrows(GenerationFailedException.class, scope::join);
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+            assertTrue(slow.isCancelled());
+        }
+    }
+
+    @Test
+    void deadlineCancelsTheRunningTasks() {
+        CountDownLatch never = new CountDownLatch(1);
+        try (GenerationScope scope = open(Duration.ofMillis(50))) {
+            Future<Object> slow = scope.fork(() -> {
+                never.await();
+                return null;
+            });
+
+            assertThrows(DeadlineExceededException.class, scope::join);
+            assertTrue(slow.isCancelled());
+        }
+    }
+
+    @Test
+    void interruptedJoinIsACancellation() throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        CountDownLatch joining = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try (GenerationScope scope = open(Duration.ofSeconds(30))) {
+                scope.fork(() -> {
+                    never.await();
+                    return null;
+                });
+                joining.countDown();
+                scope.join();
+                outcome.complete(null);
+            } catch (Throwable t) {
+                outcome.complete(t);
+            }
+        });
+        joining.await(5, TimeUnit.SECONDS);
+        waiter.interrupt();
+
+        assertInstanceOf(GenerationCancelledException.class, outcome.get(5, TimeUnit.SECONDS));
+    }
+
+    private GenerationScope open(Duration budget) {
+        return new GenerationScope(executor, Instant.now().plus(budget));
+    }
+}
@@ -0,0 +1,127 @@
+package com.back.postpilot.service.generation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "shared";
+        }));
+        awaitInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", SingleFlightTest::notCalled));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("shared", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, singleFlight.stats().get("executions"));
+        assertEquals(0, singleFlight.stats().get("inFlight"));
+    }
+
+    @Test
+    void followerRetriesWhenTheLeaderHitsItsOwnDeadline() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            awaitCoalesced(1);
+            throw new DeadlineExceededException("leader's deadline");
+        }));
+        awaitInFlight();
+        Future<String> follower = executor.submit(() ->
+                singleFlight.execute("key", Deadline.after(Duration.ofSeconds(5)), () -> "fresh"));
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DeadlineExceededException.class, leaderFailure.getCause());
+        assertEquals("fresh", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, singleFlight.stats().get("leaderRetries"));
+        assertEquals(2L, singleFlight.stats().get("executions"));
+    }
+
+    @Test
+    void followerStopsWaitingAtItsOwnDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "late";
+        }));
+        awaitInFlight();
+
+        assertThrows(DeadlineExceededException.class, () ->
+                singleFlight.execute("key", Deadline.after(Duration.ofMillis(50)), SingleFlightTest::notCalled));
+        release.countDown();
+        assertEquals("late", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void followerSharesAFailureOfTheCallItself() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            awaitCoalesced(1);
+            throw new IllegalStateException("provider down");
+        }));
+        awaitInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", SingleFlightTest::notCalled));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, singleFlight.stats().get("executions"));
+        assertEquals(0L, singleFlight.stats().get("leaderRetries"));
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) singleFlight.stats().get("inFlight") == 0) {
+            assertTrue(System.nanoTime() < giveUp, "leader never started");
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitCoalesced(long count) {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) singleFlight.stats().get("coalesced") < count) {
+            if (System.nanoTime() > giveUp) {
+                throw new IllegalStateException("follower never joined");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("never released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String notCalled() {
+        throw new AssertionError("a coalesced caller must not run its own supplier");
+    }
+}
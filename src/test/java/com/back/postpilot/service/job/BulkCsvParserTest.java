@@ -0,0 +1,76 @@
+package com.back.postpilot.service.job;
+
+import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkCsvParserTest {
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        String csv = "prompt,tone\r\n"
+                + "\"Launch post, short\",\"say \"\"hi\"\"\"\r\n"
+                + "\"first line\nsecond line\",casual\r\n";
+
+        List<ContentGenerationRequest> requests = BulkCsvParser.parse(new StringReader(csv), 7L);
+
+        assertEquals(2, requests.size());
+        assertEquals("Launch post, short", requests.get(0).getPrompt());
+        assertEquals("say \"hi\"", requests.get(0).getTone());
+        assertEquals("first line\nsecond line", requests.get(1).getPrompt());
+        assertEquals("casual", requests.get(1).getTone());
+        assertEquals(7L, requests.get(1).getUserId());
+    }
+
+    @Test
+    void headerIsCaseInsensitiveAndIgnoresAByteOrderMark() throws IOException {
+        String csv = "\uFEFFPrompt, Platform ,ContentType,targetPlatforms\n"
+                + "Product launch,linkedin,article,linkedin; x ;\n";
+
+        ContentGenerationRequest request = BulkCsvParser.parse(new StringReader(csv), 1L).get(0);
+
+        assertEquals("Product launch", request.getPrompt());
+        assertEquals("linkedin", request.getPlatform());
+        assertEquals(ContentType.ARTICLE, request.getContentType());
+        assertEquals(List.of("linkedin", "x"), request.getTargetPlatforms());
+    }
+
+    @Test
+    void missingOptionalColumnsFallBackToDefaults() throws IOException {
+        String csv = "prompt\nHello\n\n";
+
+        List<ContentGenerationRequest> requests = BulkCsvParser.parse(new StringReader(csv), 1L);
+
+        assertEquals(1, requests.size());
+        assertEquals("default", requests.get(0).getPlatform());
+        assertEquals(ContentType.POST, requests.get(0).getContentType());
+        assertNull(requests.get(0).getModel());
+        assertNull(requests.get(0).getTargetPlatforms());
+    }
+
+    @Test
+    void rejectsMissingPromptColumnAndEmptyPrompts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BulkCsvParser.parse(new StringReader("platform\nlinkedin\n"), 1L));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> BulkCsvParser.parse(new StringReader("prompt,platform\nHello,x\n,linkedin\n"), 1L));
+        assertTrue(ex.getMessage().startsWith("Row 3"));
+    }
+
+    @Test
+    void rejectsUnknownContentTypeWithTheRowNumber() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> BulkCsvParser.parse(new StringReader("prompt,contentType\nHello,novel\n"), 1L));
+        assertTrue(ex.getMessage().startsWith("Row 2"));
+    }
+}
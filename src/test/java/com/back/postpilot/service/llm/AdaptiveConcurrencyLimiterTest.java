@@ -0,0 +1,135 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.service.generation.Deadline;
+import com.back.postpilot.service.generation.DeadlineExceededException;
+import com.back.postpilot.service.generation.GenerationCancelledException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void limitGrowsAdditivelyOnSuccess() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 4, 0.5, 10, Duration.ofSeconds(1));
+
+        // +1/limit per success: 2 -> 2.5 -> 2.9 -> 3.24
+        limiter.execute(() -> "ok");
+        limiter.execute(() -> "ok");
+        assertEquals(2, limiter.stats().get("limit"));
+        limiter.execute(() -> "ok");
+        assertEquals(3, limiter.stats().get("limit"));
+        assertEquals(3L, limiter.stats().get("successes"));
+    }
+
+    @Test
+    void limitBacksOffMultiplicativelyOnOverloadOnly() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 16, 0.5, 10, Duration.ofSeconds(1));
+
+        assertThrows(IllegalArgumentException.class, () -> limiter.execute(() -> {
+            throw new IllegalArgumentException("bad prompt");
+        }));
+        assertEquals(8, limiter.stats().get("limit"));
+
+        assertThrows(RuntimeException.class, () -> limiter.execute(() -> {
+            throw new RuntimeException("429 Too Many Requests");
+        }));
+        assertEquals(4, limiter.stats().get("limit"));
+        assertEquals(1L, limiter.stats().get("overloads"));
+        assertEquals(0, limiter.stats().get("inFlight"));
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 4, 0.5, 10, Duration.ofSeconds(1));
+        for (int i = 0; i < 3; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            permit.failure(new java.util.concurrent.TimeoutException());
+            permit.release();
+        }
+        assertEquals(1, limiter.stats().get("limit"));
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.5, 0, Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        long start = System.nanoTime();
+        assertThrows(ProviderOverloadedException.class, limiter::acquire);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1L, limiter.stats().get("rejections"));
+        held.release();
+    }
+
+    @Test
+    void queuedCallerIsRejectedAfterTheQueueTimeout() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.5, 10, Duration.ofMillis(50));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        assertThrows(ProviderOverloadedException.class, limiter::acquire);
+        assertEquals(1L, limiter.stats().get("rejections"));
+        assertEquals(0, limiter.stats().get("queued"));
+        held.release();
+    }
+
+    @Test
+    void queuedCallerGivesUpAtItsDeadlineWithoutCountingAsSaturation() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.5, 10, Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        long start = System.nanoTime();
+        assertThrows(DeadlineExceededException.class, () -> limiter.acquire(Deadline.after(Duration.ofMillis(50))));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0L, limiter.stats().get("rejections"));
+        held.release();
+    }
+
+    @Test
+    void interruptedCallerIsCancelledNotOverloaded() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.5, 10, Duration.ofSeconds(30));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire().release();
+                outcome.complete(null);
+            } catch (Throwable t) {
+                outcome.complete(t);
+            }
+        });
+        while ((int) limiter.stats().get("queued") == 0) {
+            Thread.sleep(1);
+        }
+        waiter.interrupt();
+
+        assertInstanceOf(GenerationCancelledException.class, outcome.get(5, TimeUnit.SECONDS));
+        assertEquals(0L, limiter.stats().get("rejections"));
+        assertFalse(AdaptiveConcurrencyLimiter.isOverload(new GenerationCancelledException("cancelled")));
+        held.release();
+    }
+
+    @Test
+    void releasedSlotWakesAQueuedCaller() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, 0.5, 10, Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> limiter.execute(() -> "ran"));
+        while ((int) limiter.stats().get("queued") == 0) {
+            Thread.sleep(1);
+        }
+        held.success();
+        held.release();
+
+        assertEquals("ran", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,98 @@
+package com.back.postpilot.service.llm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ChatProviderRouterTest {
+
+    private final ChatClient primary = mock(ChatClient.class);
+    private final ChatClient secondary = mock(ChatClient.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // threshold 1 and no open duration: one failure opens a circuit, the next request finds it half-open
+    private final ChatProviderRouter router = new ChatProviderRouter(
+            Map.of("AzureOpenAiChatClient", primary, "OpenAiChatClient", secondary),
+            executor, List.of("azureopenai", "openai"), 1, Duration.ZERO, 0.95,
+            Duration.ofSeconds(30), Duration.ofSeconds(30));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void halfOpenProviderSkippedByAnEarlierAnswerCanStillRecover() {
+        assertThrows(LLMProviderException.class, () -> router.call(client -> {
+            throw new IllegalStateException("down");
+        }));
+        assertEquals("OPEN", state("azureopenai"));
+        assertEquals("OPEN", state("openai"));
+
+        // the primary answers, so the half-open secondary is never attempted
+        assertEquals("primary", router.call(client -> client == primary ? "primary" : fail()));
+        assertEquals("CLOSED", state("azureopenai"));
+
+        // the skipped provider must still be offered its probe, and closes once it answers
+        assertEquals("secondary", router.call(client -> client == secondary ? "secondary" : fail()));
+        assertEquals("CLOSED", state("openai"));
+    }
+
+    @Test
+    void halfOpenProbeIsOnlyClaimedWhenTheAttemptStarts() {
+        ProviderCircuitBreaker breaker = new ProviderCircuitBreaker("test", 1, Duration.ZERO);
+        breaker.recordFailure();
+
+        assertTrue(breaker.isAvailable());
+        assertTrue(breaker.isAvailable());
+        assertTrue(breaker.allowRequest());
+        assertEquals(ProviderCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.isAvailable());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordCancelled();
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess(Duration.ofMillis(10));
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void reasoningFromTheLocalModelIsStrippedOnFallback() {
+        ChatClient ollama = mock(ChatClient.class);
+        ChatProviderRouter withOllama = new ChatProviderRouter(
+                Map.of("AzureOpenAiChatClient", primary, "OllamaChatClient", ollama),
+                executor, List.of("azureopenai", "ollama"), 1, Duration.ofMinutes(1), 0.95,
+                Duration.ofSeconds(30), Duration.ofSeconds(30));
+
+        String reply = withOllama.call(client -> client == ollama ? "<think>plan the post</think>\n\nThe post" : fail());
+        assertEquals("The post", reply);
+
+        List<String> streamed = withOllama.stream(client -> client == ollama
+                        ? Flux.just("<thi", "nk>plan</think>", "The ", "post")
+                        : Flux.error(new IllegalStateException("unavailable")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        assertEquals("The post", String.join("", streamed));
+    }
+
+    private String state(String provider) {
+        return String.valueOf(router.stats().get(provider).get("state"));
+    }
+
+    private static String fail() {
+        throw new IllegalStateException("unavailable");
+    }
+}
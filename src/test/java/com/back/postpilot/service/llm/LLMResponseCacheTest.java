@@ -0,0 +1,72 @@
+package com.back.postpilot.service.llm;
+
+import com.back.postpilot.EnumTypeConstants.AssitanceModels;
+import com.back.postpilot.EnumTypeConstants.ContentType;
+import com.back.postpilot.domain.ContentGenerationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LLMResponseCacheTest {
+
+    private final ContentGenerationRequest request = ContentGenerationRequest.builder()
+            .platform("linkedin")
+            .contentType(ContentType.POST)
+            .build();
+
+    @Test
+    void keyIgnoresWhitespaceButNotModelOrPlatform() {
+        LLMResponseCache cache = new LLMResponseCache(true, 10, Duration.ofMinutes(5), Duration.ofMinutes(5));
+        String key = cache.key("content", AssitanceModels.GEMINI, request, "system", "write  a\n post ");
+
+        assertEquals(key, cache.key("content", AssitanceModels.GEMINI, request, " system ", "write a post"));
+        assertNotEquals(key, cache.key("content", AssitanceModels.OLLAMA, request, "system", "write a post"));
+        assertNotEquals(key, cache.key("title", AssitanceModels.GEMINI, request, "system", "write a post"));
+        ContentGenerationRequest other = ContentGenerationRequest.builder().platform("x").contentType(ContentType.POST).build();
+        assertNotEquals(key, cache.key("content", AssitanceModels.GEMINI, other, "system", "write a post"));
+    }
+
+    @Test
+    void servesStoredResponsesAndSkipsFailureStrings() {
+        LLMResponseCache cache = new LLMResponseCache(true, 10, Duration.ofMinutes(5), Duration.ofMinutes(5));
+        cache.putContent("a", "generated post");
+        cache.putContent("b", "bad Request");
+        cache.putContent("c", " ");
+
+        assertEquals(Optional.of("generated post"), cache.get("a"));
+        assertTrue(cache.get("b").isEmpty());
+        assertTrue(cache.get("c").isEmpty());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        LLMResponseCache cache = new LLMResponseCache(true, 10, Duration.ofMillis(-1), Duration.ofMinutes(5));
+        cache.putContent("content", "generated post");
+        cache.putTitle("title", "A title");
+
+        assertTrue(cache.get("content").isEmpty());
+        assertEquals(Optional.of("A title"), cache.get("title"));
+        assertEquals(1, cache.stats().get("size"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LLMResponseCache cache = new LLMResponseCache(true, 2, Duration.ofMinutes(5), Duration.ofMinutes(5));
+        cache.putContent("a", "first");
+        cache.putContent("b", "second");
+        cache.get("a");
+        cache.putContent("c", "third");
+
+        assertEquals(Optional.of("first"), cache.get("a"));
+        assertTrue(cache.get("b").isEmpty());
+        assertEquals(Optional.of("third"), cache.get("c"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+}